@@ -1,17 +1,38 @@
 package com.springcloud.demo.asksmicroservice.asks.controller;
 
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.BatchResponseDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.DeleteAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.RoomStatsDTO;
+import com.springcloud.demo.asksmicroservice.asks.service.AskAnswerWaiters;
+import com.springcloud.demo.asksmicroservice.asks.service.AskExporter;
 import com.springcloud.demo.asksmicroservice.asks.service.AskService;
+import com.springcloud.demo.asksmicroservice.asks.service.AskStreamHub;
+import com.springcloud.demo.asksmicroservice.asks.service.RoomStatsService;
 import com.springcloud.demo.asksmicroservice.dto.SimpleResponseDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.BadRequestException;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -20,7 +41,16 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AskController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AskService askService;
+    private final AskExporter askExporter;
+    private final AskStreamHub askStreamHub;
+    private final AskAnswerWaiters askAnswerWaiters;
+    private final RoomStatsService roomStatsService;
+
+    @Value("${asks.http.answered-max-age:60s}")
+    private Duration answeredMaxAge;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,32 +58,169 @@ public class AskController {
         return askService.create(createAksDTO, idUserLogged);
     }
 
+    /**
+     * Create many asks of a room at once, the result of each question is reported in its position
+     */
+    @PostMapping("/batch")
+    BatchResponseDTO createBatch(@Valid @RequestBody CreateAskBatchDTO createAskBatchDTO, @RequestHeader("X-UserId") String idUserLogged) {
+        return askService.createBatch(createAskBatchDTO, idUserLogged);
+    }
+
+    /**
+     * With a cursor param the page is fetched by keyset and the next cursor, if any, is sent in the X-Next-Cursor header.
+     * Listings carry an ETag, a matching If-None-Match gets a 304 without body
+     */
     @GetMapping
-    List<ResponseAskDTO> findAll(@Valid @ModelAttribute FilterAskDTO filters) {
-        return askService.findAll(filters);
+    ResponseEntity<List<ResponseAskDTO>> findAll(@Valid @ModelAttribute FilterAskDTO filters) {
+        if (filters.getCursor() == null) {
+            List<ResponseAskDTO> asks = askService.findAll(filters);
+
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(AskETags.of(asks, null))
+                    .body(asks);
+        }
+
+        PageAskDTO page = askService.findAllByCursor(filters);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(AskETags.of(page.getAsks(), page.getNextCursor()));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+
+        return response.body(page.getAsks());
     }
 
+    /**
+     * All the asks of a room or of a user, oldest first, one JSON object per line.
+     * The body is written while rows are read, so the response is never held in memory
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @UUID String roomId,
+            @RequestParam(required = false) @UUID String userId
+    ) {
+        if ((roomId == null) == (userId == null)) {
+            throw new BadRequestException("Exactly one of roomId or userId is required");
+        }
+
+        StreamingResponseBody body = roomId != null
+                ? out -> askExporter.exportByRoom(roomId, out)
+                : out -> askExporter.exportByUser(userId, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Server-sent events with the asks created, answered and deleted in the room from now on.
+     * Event names are created, answered, answer_deleted and deleted, the data is the ask
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter stream(@RequestParam @UUID String roomId) {
+        return askStreamHub.subscribe(roomId);
+    }
+
+    @GetMapping("/stats")
+    RoomStatsDTO stats(@RequestParam @UUID String roomId) {
+        return roomStatsService.findByRoomId(roomId);
+    }
+
+    /**
+     * Answered asks rarely change so they can be cached for a while, unanswered ones must be revalidated
+     */
     @GetMapping("/{id}")
-    ResponseAskDTO findById(@PathVariable @UUID String id) {
-        return askService.findById(id);
+    ResponseEntity<ResponseAskDTO> findById(@PathVariable @UUID String id) {
+        ResponseAskDTO ask = askService.findById(id);
+        CacheControl cacheControl = ask.getAnswer() == null ? CacheControl.noCache() : CacheControl.maxAge(answeredMaxAge);
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(AskETags.of(ask))
+                .body(ask);
     }
 
+    /**
+     * Wait up to timeout seconds for the ask to be answered and return it, answered or not.
+     * Returns right away if it already is
+     */
+    @GetMapping("/{id}/answer")
+    DeferredResult<ResponseAskDTO> waitForAnswer(
+            @PathVariable @UUID String id,
+            @RequestParam(defaultValue = "30") @Positive int timeout
+    ) {
+        // Registered before reading the ask so an answer given in between is not missed
+        DeferredResult<ResponseAskDTO> answer = askAnswerWaiters.await(id, Duration.ofSeconds(timeout));
+
+        ResponseAskDTO ask;
+        try {
+            ask = askService.findById(id);
+        } catch (RuntimeException e) {
+            answer.setErrorResult(e);
+            return answer;
+        }
+
+        if (ask.getAnswer() != null) {
+            answer.setResult(ask);
+        } else {
+            // Read again, an answer may have been missed, e.g. when the invalidation of another instance was lost
+            answer.onTimeout(() -> {
+                try {
+                    answer.setResult(askService.findById(id));
+                } catch (RuntimeException e) {
+                    answer.setErrorResult(e);
+                }
+            });
+        }
+
+        return answer;
+    }
+
+    /**
+     * Answer, delete and delete answer accept the ETag of the ask in If-Match, they fail with 409
+     * when the ask changed since it was read. The ask written is returned with its new ETag
+     */
     @PostMapping("/{id}/answer")
-    ResponseAskDTO answer(
+    ResponseEntity<ResponseAskDTO> answer(
             @PathVariable @UUID String id,
             @Valid @RequestBody AnswerAskDTO answerAskDTO,
-            @RequestHeader("X-UserId") String idUserLogged
+            @RequestHeader("X-UserId") String idUserLogged,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return askService.answer(id, answerAskDTO, idUserLogged);
+        ResponseAskDTO ask = askService.answer(id, answerAskDTO, idUserLogged, AskETags.versionOf(ifMatch, id));
+
+        return ResponseEntity.ok().eTag(AskETags.of(ask)).body(ask);
+    }
+
+    @PostMapping("/batch/answer")
+    BatchResponseDTO answerBatch(@Valid @RequestBody AnswerAskBatchDTO answerAskBatchDTO, @RequestHeader("X-UserId") String idUserLogged) {
+        return askService.answerBatch(answerAskBatchDTO, idUserLogged);
+    }
+
+    @PostMapping("/batch/delete")
+    BatchResponseDTO deleteBatch(@Valid @RequestBody DeleteAskBatchDTO deleteAskBatchDTO, @RequestHeader("X-UserId") String idUserLogged) {
+        return askService.deleteBatch(deleteAskBatchDTO, idUserLogged);
     }
 
     @DeleteMapping("/{id}")
-    SimpleResponseDTO delete(@PathVariable @UUID String id, @RequestHeader("X-UserId") String idUserLogged) {
-        return askService.delete(id, idUserLogged);
+    SimpleResponseDTO delete(
+            @PathVariable @UUID String id,
+            @RequestHeader("X-UserId") String idUserLogged,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return askService.delete(id, idUserLogged, AskETags.versionOf(ifMatch, id));
     }
 
     @DeleteMapping("/{id}/answer")
-    ResponseAskDTO deleteAnswer(@PathVariable @UUID String id, @RequestHeader("X-UserId") String idUserLogged) {
-        return askService.deleteAnswer(id, idUserLogged);
+    ResponseEntity<ResponseAskDTO> deleteAnswer(
+            @PathVariable @UUID String id,
+            @RequestHeader("X-UserId") String idUserLogged,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        ResponseAskDTO ask = askService.deleteAnswer(id, idUserLogged, AskETags.versionOf(ifMatch, id));
+
+        return ResponseEntity.ok().eTag(AskETags.of(ask)).body(ask);
     }
 }
@@ -0,0 +1,66 @@
+package com.springcloud.demo.asksmicroservice.asks.controller;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong ETags computed from ask ids and versions, so a 304 can be decided without serializing the body.
+ */
+final class AskETags {
+
+    private AskETags() {
+    }
+
+    static String of(ResponseAskDTO ask) {
+        return "\"" + ask.getId() + "-" + ask.getVersion() + "\"";
+    }
+
+    /**
+     * Version of the ask in an If-Match ETag sent back by the client, null when there is no
+     * header or it is {@code *}.
+     */
+    static Long versionOf(String ifMatch, String id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String eTag = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (!eTag.startsWith(prefix) || !eTag.endsWith("\"")) {
+            throw new BadRequestException("If-Match is not an ETag of the ask with id: " + id);
+        }
+
+        try {
+            return Long.parseLong(eTag.substring(prefix.length(), eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match is not an ETag of the ask with id: " + id);
+        }
+    }
+
+    static String of(List<ResponseAskDTO> asks, String nextCursor) {
+        MessageDigest digest = sha256();
+        for (ResponseAskDTO ask : asks) {
+            digest.update((ask.getId() + "-" + ask.getVersion() + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        if (nextCursor != null) {
+            digest.update(nextCursor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.UUID;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerAskBatchDTO {
+
+    @NotBlank
+    @UUID
+    String roomId;
+
+    @NotEmpty
+    @Size(max = 500)
+    List<@Valid AnswerAskItemDTO> answers;
+}
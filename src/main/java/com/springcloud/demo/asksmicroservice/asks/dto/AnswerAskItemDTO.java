@@ -0,0 +1,24 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerAskItemDTO {
+
+    @NotBlank
+    @UUID
+    String id;
+
+    @NotBlank
+    @Size(min = 1, max = 255)
+    String answer;
+}
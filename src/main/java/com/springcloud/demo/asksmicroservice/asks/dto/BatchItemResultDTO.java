@@ -0,0 +1,22 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one item of a batch, in the position of the item in the request: the ask when it
+ * succeeded, the error otherwise.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO {
+    private int index;
+    private ResponseAskDTO ask;
+    private String error;
+}
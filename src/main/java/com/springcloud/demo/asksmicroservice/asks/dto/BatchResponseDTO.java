@@ -0,0 +1,29 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponseDTO {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+
+    public static BatchResponseDTO of(List<BatchItemResultDTO> results) {
+        int failed = (int) results.stream().filter(result -> result.getError() != null).count();
+
+        return BatchResponseDTO
+                .builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.UUID;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateAskBatchDTO {
+
+    @NotBlank
+    @UUID
+    String roomId;
+
+    /**
+     * Validated one by one, an invalid question is reported in its result and the rest are created
+     */
+    @NotEmpty
+    @Size(max = 500)
+    List<String> questions;
+}
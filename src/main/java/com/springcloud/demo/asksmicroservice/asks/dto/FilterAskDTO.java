@@ -1,6 +1,7 @@
 package com.springcloud.demo.asksmicroservice.asks.dto;
 
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,11 @@ public class FilterAskDTO {
     @UUID
     String userId;
 
+    /**
+     * Only answered asks when true, only unanswered ones when false.
+     */
+    Boolean answered;
+
     @PositiveOrZero
     @Builder.Default
     Integer page = 1;
@@ -25,4 +31,17 @@ public class FilterAskDTO {
     @PositiveOrZero
     @Builder.Default
     Integer limit = 20;
+
+    /**
+     * Keyset pagination, empty for the first page and then the cursor returned by the previous one.
+     * When present, page is ignored.
+     */
+    String cursor;
+
+    /**
+     * Words searched in questions and answers, results are sorted by relevance.
+     * Paginated by page, it can not be combined with a cursor.
+     */
+    @Size(max = 200)
+    String search;
 }
@@ -0,0 +1,23 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent by the instance that changed an ask so the others drop their listings of its room and user,
+ * and wake the requests waiting for the answer of the ask.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListingInvalidationDTO {
+    private String origin;
+    private String roomId;
+    private String userId;
+    private String askId;
+    private AskChangedEvent.Type type;
+}
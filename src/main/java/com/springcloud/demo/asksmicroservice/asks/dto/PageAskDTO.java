@@ -0,0 +1,17 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageAskDTO {
+    private List<ResponseAskDTO> asks;
+    private String nextCursor;
+}
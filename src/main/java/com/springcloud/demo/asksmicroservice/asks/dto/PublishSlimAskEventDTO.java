@@ -0,0 +1,24 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ask event that references the room, its owner and the user by id instead of embedding them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishSlimAskEventDTO {
+    private String id;
+    private String createdAt;
+    private String respondedAt;
+    private String question;
+    private String answer;
+    private String roomId;
+    private String ownerId;
+    private String userId;
+}
@@ -1,5 +1,6 @@
 package com.springcloud.demo.asksmicroservice.asks.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,4 +22,7 @@ public class ResponseAskDTO {
     private String answer;
     private String roomId;
     private String userId;
+
+    @JsonIgnore
+    private Long version;
 }
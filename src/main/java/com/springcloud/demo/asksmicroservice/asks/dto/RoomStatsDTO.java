@@ -0,0 +1,21 @@
+package com.springcloud.demo.asksmicroservice.asks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomStatsDTO {
+    private String roomId;
+    private long total;
+    private long answered;
+    private long unanswered;
+    /**
+     * Null while no ask of the room is answered
+     */
+    private Double averageAnswerSeconds;
+}
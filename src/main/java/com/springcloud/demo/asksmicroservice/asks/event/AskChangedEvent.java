@@ -0,0 +1,26 @@
+package com.springcloud.demo.asksmicroservice.asks.event;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+
+/**
+ * Published by AskService once an ask is written. {@code previous} is the state before the change
+ * (null on create) and {@code ask} the state after it (the last state on delete). {@code statsEpoch}
+ * is the epoch of the room stats read in the transaction of the write, see RoomStatsService.
+ */
+public record AskChangedEvent(Type type, ResponseAskDTO previous, ResponseAskDTO ask, long statsEpoch) {
+
+    public enum Type {
+        CREATED,
+        ANSWERED,
+        ANSWER_DELETED,
+        DELETED
+    }
+
+    public String roomId() {
+        return ask.getRoomId();
+    }
+
+    public String userId() {
+        return ask.getUserId();
+    }
+}
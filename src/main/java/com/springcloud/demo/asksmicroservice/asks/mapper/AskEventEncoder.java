@@ -0,0 +1,188 @@
+package com.springcloud.demo.asksmicroservice.asks.mapper;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.PublishAskEventDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PublishSlimAskEventDTO;
+import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encode ask events as JSON (default, what current consumers read) or as a compact binary.
+ * The variant and the content type travel as message headers.
+ * <p>
+ * Binary layout, version 1: schema version byte, variant byte (0 full, 1 slim), then the ask
+ * (id, createdAt, respondedAt, question, answer) followed by room and user for the full variant,
+ * or roomId, ownerId and userId for the slim one. Every value starts with a presence byte (0 null);
+ * UUIDs take 16 bytes, timestamps are UTC epoch microseconds and strings are modified UTF-8.
+ */
+@Component
+public class AskEventEncoder {
+
+    public static final byte SCHEMA_VERSION = 1;
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String VARIANT_HEADER = "event-variant";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.asks.ask-event";
+
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+    private static final byte UUID_ID = 1;
+    private static final byte STRING_ID = 2;
+
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    public record EncodedEvent(byte[] payload, Map<String, String> headers) {
+    }
+
+    private final JsonCodec jsonCodec;
+    private final Format format;
+    private final boolean slim;
+
+    public AskEventEncoder(
+            JsonCodec jsonCodec,
+            @Value("${messaging.ask-events.format:JSON}") Format format,
+            @Value("${messaging.ask-events.slim:false}") boolean slim
+    ) {
+        this.jsonCodec = jsonCodec;
+        this.format = format;
+        this.slim = slim;
+    }
+
+    public EncodedEvent encode(Ask ask, RoomDTO room, UserDTO user) {
+        byte[] payload;
+
+        if (slim) {
+            PublishSlimAskEventDTO event = AskMapper.askToPublishSlimAskEventDto(ask, room);
+            payload = format == Format.JSON ? jsonCodec.toBytes(event) : writeBinary(out -> writeSlim(out, event));
+        } else {
+            PublishAskEventDTO event = AskMapper.askToPublishAskEventDto(ask, room, user);
+            payload = format == Format.JSON ? jsonCodec.toBytes(event) : writeBinary(out -> writeFull(out, event));
+        }
+
+        return new EncodedEvent(payload, Map.of(
+                CONTENT_TYPE_HEADER, format == Format.JSON ? JSON_CONTENT_TYPE : BINARY_CONTENT_TYPE + ";v=" + SCHEMA_VERSION,
+                VARIANT_HEADER, slim ? "slim" : "full"
+        ));
+    }
+
+    private static byte[] writeBinary(BinaryWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(SCHEMA_VERSION);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFull(DataOutputStream out, PublishAskEventDTO event) throws IOException {
+        out.writeByte(0);
+        writeId(out, event.getId());
+        writeTimestamp(out, event.getCreatedAt());
+        writeTimestamp(out, event.getRespondedAt());
+        writeString(out, event.getQuestion());
+        writeString(out, event.getAnswer());
+
+        RoomDTO room = event.getRoom();
+        if (room == null) {
+            out.writeByte(ABSENT);
+        } else {
+            out.writeByte(PRESENT);
+            writeId(out, room.getId());
+            if (room.getNum() == null) {
+                out.writeByte(ABSENT);
+            } else {
+                out.writeByte(PRESENT);
+                out.writeInt(room.getNum());
+            }
+            writeString(out, room.getName());
+            writeString(out, room.getDescription());
+            writeId(out, room.getOwnerId());
+            writeUser(out, room.getOwner());
+        }
+
+        writeUser(out, event.getUser());
+    }
+
+    private static void writeSlim(DataOutputStream out, PublishSlimAskEventDTO event) throws IOException {
+        out.writeByte(1);
+        writeId(out, event.getId());
+        writeTimestamp(out, event.getCreatedAt());
+        writeTimestamp(out, event.getRespondedAt());
+        writeString(out, event.getQuestion());
+        writeString(out, event.getAnswer());
+        writeId(out, event.getRoomId());
+        writeId(out, event.getOwnerId());
+        writeId(out, event.getUserId());
+    }
+
+    private static void writeUser(DataOutputStream out, UserDTO user) throws IOException {
+        if (user == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        out.writeByte(PRESENT);
+        writeId(out, user.getId() == null ? null : user.getId().toString());
+        writeString(out, user.getEmail());
+        writeString(out, user.getName());
+    }
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        if (id == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            out.writeByte(STRING_ID);
+            out.writeUTF(id);
+            return;
+        }
+        out.writeByte(UUID_ID);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static void writeTimestamp(DataOutputStream out, String timestamp) throws IOException {
+        if (timestamp == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        LocalDateTime dateTime = LocalDateTime.parse(timestamp);
+        out.writeByte(PRESENT);
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(ABSENT);
+            return;
+        }
+        out.writeByte(PRESENT);
+        out.writeUTF(value);
+    }
+
+    @FunctionalInterface
+    private interface BinaryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
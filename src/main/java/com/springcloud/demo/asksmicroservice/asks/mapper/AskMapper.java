@@ -2,8 +2,10 @@ package com.springcloud.demo.asksmicroservice.asks.mapper;
 
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.PublishAskEventDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PublishSlimAskEventDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskView;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
 import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
 import org.springframework.stereotype.Component;
@@ -28,6 +30,7 @@ public class AskMapper {
                 .question(ask.getQuestion())
                 .roomId(ask.getRoomId())
                 .userId(ask.getUserId())
+                .version(ask.getVersion())
                 .build();
 
         if(ask.getRespondedAt() != null){
@@ -37,6 +40,20 @@ public class AskMapper {
         return responseAskDTO;
     }
 
+    public static ResponseAskDTO askViewToResponseAskDto(AskView ask){
+        return ResponseAskDTO
+                .builder()
+                .id(ask.id())
+                .createdAt(ask.createdAt().toString())
+                .respondedAt(ask.respondedAt() == null ? null : ask.respondedAt().toString())
+                .answer(ask.answer())
+                .question(ask.question())
+                .roomId(ask.roomId())
+                .userId(ask.userId())
+                .version(ask.version())
+                .build();
+    }
+
     public static PublishAskEventDTO askToPublishAskEventDto(Ask ask, RoomDTO room, UserDTO user){
         return PublishAskEventDTO
                 .builder()
@@ -48,4 +65,17 @@ public class AskMapper {
                 .user(user)
                 .build();
     }
+
+    public static PublishSlimAskEventDTO askToPublishSlimAskEventDto(Ask ask, RoomDTO room){
+        return PublishSlimAskEventDTO
+                .builder()
+                .id(ask.getId())
+                .createdAt(ask.getCreatedAt().toString())
+                .answer(ask.getAnswer())
+                .question(ask.getQuestion())
+                .roomId(ask.getRoomId())
+                .ownerId(room.getOwnerId())
+                .userId(ask.getUserId())
+                .build();
+    }
 }
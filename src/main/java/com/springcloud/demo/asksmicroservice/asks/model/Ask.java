@@ -38,4 +38,7 @@ public class Ask {
 
     @Column(name = "user_id")
     String userId;
+
+    @Version
+    Long version;
 }
@@ -0,0 +1,35 @@
+package com.springcloud.demo.asksmicroservice.asks.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Counters of the asks of a room, maintained incrementally by RoomStatsService.
+ * {@code epoch} counts the reconciliations of the room, changes written in an older epoch are already counted.
+ */
+@Entity
+@Table(name = "room_stats")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomStats {
+
+    @Id
+    @Column(name = "room_id")
+    String roomId;
+
+    Long total;
+
+    Long answered;
+
+    @Column(name = "answer_seconds")
+    Long answerSeconds;
+
+    Long epoch;
+
+    public RoomStats(String roomId, Long total, Long answered, Long answerSeconds) {
+        this(roomId, total, answered, answerSeconds, 0L);
+    }
+}
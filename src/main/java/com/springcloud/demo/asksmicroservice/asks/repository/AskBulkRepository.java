@@ -0,0 +1,23 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface AskBulkRepository {
+    /**
+     * Set the answer of each ask of the room in one JDBC batch, bumping their version. An ask is only
+     * updated while it still has the version in {@code versionsById}, asks changed since then are skipped.
+     *
+     * @return ids of the asks updated
+     */
+    Collection<String> answerAll(String roomId, Map<String, String> answersById, Map<String, Long> versionsById, LocalDateTime respondedAt);
+
+    /**
+     * Delete the asks of the room that still have the version in {@code versionsById}. They are locked
+     * first, so the asks reported are exactly the ones this call deleted.
+     *
+     * @return ids of the asks deleted
+     */
+    Collection<String> deleteAll(String roomId, Map<String, Long> versionsById);
+}
@@ -0,0 +1,139 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes of many asks of a room. They go straight to the database, so asks of
+ * the room already loaded in the persistence context are not updated.
+ */
+@RequiredArgsConstructor
+@Transactional
+public class AskBulkRepositoryImpl implements AskBulkRepository {
+
+    private static final String ANSWER_ASK = "UPDATE asks SET answer = ?, responded_at = ?, version = version + 1 " +
+            "WHERE id = ? AND room_id = ? AND version = ?";
+    private static final String ANSWERED_ASKS = "SELECT id, answer, version FROM asks WHERE room_id = ? AND id IN ";
+    private static final String LOCK_ASKS = "SELECT id, version FROM asks WHERE room_id = ? AND id IN ";
+    private static final String DELETE_ASKS = "DELETE FROM asks WHERE room_id = ? AND id IN ";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Collection<String> answerAll(String roomId, Map<String, String> answersById, Map<String, Long> versionsById, LocalDateTime respondedAt) {
+        List<String> ids = new ArrayList<>(answersById.keySet());
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            int[] updated;
+            try (PreparedStatement statement = connection.prepareStatement(ANSWER_ASK)) {
+                for (String id : ids) {
+                    statement.setString(1, answersById.get(id));
+                    statement.setTimestamp(2, Timestamp.valueOf(respondedAt));
+                    statement.setString(3, id);
+                    statement.setString(4, roomId);
+                    statement.setLong(5, versionsById.get(id));
+                    statement.addBatch();
+                }
+                updated = statement.executeBatch();
+            }
+
+            List<String> answered = new ArrayList<>();
+            List<String> unknown = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 1) {
+                    answered.add(ids.get(i));
+                } else if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                    unknown.add(ids.get(i));
+                }
+            }
+            if (!unknown.isEmpty()) {
+                // rewriteBatchedStatements sends the batch as one multi-statement, the driver cannot tell the rows apart
+                answered.addAll(answeredByThisBatch(connection, roomId, unknown, answersById, versionsById));
+            }
+            return answered;
+        });
+    }
+
+    /**
+     * Asks holding the answer of this batch one version after the one read. responded_at is not compared,
+     * the column rounds the time written.
+     */
+    private static List<String> answeredByThisBatch(
+            Connection connection,
+            String roomId,
+            List<String> ids,
+            Map<String, String> answersById,
+            Map<String, Long> versionsById
+    ) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ANSWERED_ASKS + placeholders(ids.size()))) {
+            setRoomAndIds(statement, roomId, ids);
+
+            List<String> answered = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String id = rs.getString("id");
+                    if (answersById.get(id).equals(rs.getString("answer")) && rs.getLong("version") == versionsById.get(id) + 1) {
+                        answered.add(id);
+                    }
+                }
+            }
+            return answered;
+        }
+    }
+
+    @Override
+    public Collection<String> deleteAll(String roomId, Map<String, Long> versionsById) {
+        List<String> ids = new ArrayList<>(versionsById.keySet());
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<String> unchanged = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(LOCK_ASKS + placeholders(ids.size()) + " FOR UPDATE")) {
+                setRoomAndIds(statement, roomId, ids);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        String id = rs.getString("id");
+                        if (rs.getLong("version") == versionsById.get(id)) {
+                            unchanged.add(id);
+                        }
+                    }
+                }
+            }
+            if (unchanged.isEmpty()) {
+                return unchanged;
+            }
+
+            // Locked above, every one of them is deleted here
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_ASKS + placeholders(unchanged.size()))) {
+                setRoomAndIds(statement, roomId, unchanged);
+                statement.executeUpdate();
+            }
+            return unchanged;
+        });
+    }
+
+    private static String placeholders(int size) {
+        return "(" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+    }
+
+    private static void setRoomAndIds(PreparedStatement statement, String roomId, List<String> ids) throws SQLException {
+        statement.setString(1, roomId);
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setString(i + 2, ids.get(i));
+        }
+    }
+}
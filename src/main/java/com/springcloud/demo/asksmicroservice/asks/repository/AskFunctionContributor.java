@@ -0,0 +1,30 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * {@code ask_relevance(question, answer, search)}, the relevance of an ask for a search, 0 when it does not match.
+ * On MySQL it is the natural language score of the FULLTEXT index on (question, answer). Other databases,
+ * e.g. H2 in tests, get a rough score: 2 when the question contains the search and 1 when the answer does.
+ */
+public class AskFunctionContributor implements FunctionContributor {
+
+    static final String RELEVANCE = "ask_relevance";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof MySQLDialect
+                ? "match(?1, ?2) against (?3 in natural language mode)"
+                : "(case when lower(?1) like lower(concat('%', ?3, '%')) then 2 else 0 end"
+                + " + case when lower(?2) like lower(concat('%', ?3, '%')) then 1 else 0 end)";
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                RELEVANCE,
+                pattern,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE)
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AskQueryRepository {
+    /**
+     * Fetch a window of asks matching the specification without running a count query.
+     */
+    List<AskView> findWindow(Specification<Ask> specification, Sort sort, long offset, int limit);
+
+    /**
+     * Fetch a window of asks matching the specification and the search, most relevant first.
+     */
+    List<AskView> search(Specification<Ask> specification, String search, long offset, int limit);
+
+    Optional<AskView> findViewById(String id);
+}
@@ -0,0 +1,100 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read path that selects straight into {@link AskView}, so there is no entity hydration
+ * nor dirty checking snapshots for data that is only returned to clients.
+ */
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AskQueryRepositoryImpl implements AskQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<AskView> findWindow(Specification<Ask> specification, Sort sort, long offset, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AskView> query = builder.createQuery(AskView.class);
+        Root<Ask> root = selectView(query, builder);
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<AskView> search(Specification<Ask> specification, String search, long offset, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AskView> query = builder.createQuery(AskView.class);
+        Root<Ask> root = selectView(query, builder);
+
+        ParameterExpression<String> searchParameter = builder.parameter(String.class);
+        Expression<Double> relevance = builder.function(
+                AskFunctionContributor.RELEVANCE,
+                Double.class,
+                root.get("question"),
+                root.get("answer"),
+                searchParameter
+        );
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        Predicate matches = builder.greaterThan(relevance, 0d);
+        query.where(predicate == null ? matches : builder.and(predicate, matches));
+        query.orderBy(builder.desc(relevance), builder.desc(root.get("createdAt")), builder.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setParameter(searchParameter, search)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<AskView> findViewById(String id) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AskView> query = builder.createQuery(AskView.class);
+        Root<Ask> root = selectView(query, builder);
+        query.where(builder.equal(root.get("id"), id));
+
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    private static Root<Ask> selectView(CriteriaQuery<AskView> query, CriteriaBuilder builder) {
+        Root<Ask> root = query.from(Ask.class);
+        query.select(builder.construct(
+                AskView.class,
+                root.get("id"),
+                root.get("createdAt"),
+                root.get("respondedAt"),
+                root.get("question"),
+                root.get("answer"),
+                root.get("roomId"),
+                root.get("userId"),
+                root.get("version")
+        ));
+        return root;
+    }
+}
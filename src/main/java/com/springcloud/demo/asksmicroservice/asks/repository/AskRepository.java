@@ -3,6 +3,30 @@ package com.springcloud.demo.asksmicroservice.asks.repository;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AskRepository extends JpaRepository<Ask, String>, JpaSpecificationExecutor<Ask> {
+import java.time.LocalDateTime;
+
+public interface AskRepository extends JpaRepository<Ask, String>, JpaSpecificationExecutor<Ask>, AskQueryRepository, AskBulkRepository {
+
+    /**
+     * Set the answer only if the ask is still at the given version, bumping it.
+     *
+     * @return 0 when the ask was changed or deleted since it was read
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Ask a SET a.answer = :answer, a.respondedAt = :respondedAt, a.version = a.version + 1 " +
+            "WHERE a.id = :id AND a.version = :version")
+    int updateAnswerIfUnchanged(String id, Long version, String answer, LocalDateTime respondedAt);
+
+    /**
+     * @return 0 when the ask was changed or deleted since it was read
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Ask a WHERE a.id = :id AND a.version = :version")
+    int deleteIfUnchanged(String id, Long version);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -21,10 +22,34 @@ public class AskSpecification {
             if(filters.getRoomId() != null){
                 predicates.add(builder.equal(root.get("roomId"), filters.getRoomId()));
             }
+            // Unanswered asks of a room are served by idx_asks_room_answer_created_at
+            if (filters.getAnswered() != null) {
+                predicates.add(filters.getAnswered() ? builder.isNotNull(root.get("answer")) : builder.isNull(root.get("answer")));
+            }
 
             Predicate[] predicatesArray = predicates.toArray(new Predicate[0]);
 
             return builder.and(predicatesArray);
         };
     }
+
+    public Specification<Ask> inRoom(String roomId, Collection<String> ids) {
+        return (root, query, builder) -> builder.and(
+                builder.equal(root.get("roomId"), roomId),
+                root.get("id").in(ids)
+        );
+    }
+
+    /**
+     * Asks after the cursor in (createdAt, id) descending order.
+     */
+    public Specification<Ask> after(AskCursor cursor) {
+        return (root, query, builder) -> builder.or(
+                builder.lessThan(root.get("createdAt"), cursor.createdAt()),
+                builder.and(
+                        builder.equal(root.get("createdAt"), cursor.createdAt()),
+                        builder.lessThan(root.get("id"), cursor.id())
+                )
+        );
+    }
 }
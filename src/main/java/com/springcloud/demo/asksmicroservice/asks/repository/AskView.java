@@ -0,0 +1,18 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an ask, selected with a constructor expression so no entity is managed.
+ */
+public record AskView(
+        String id,
+        LocalDateTime createdAt,
+        LocalDateTime respondedAt,
+        String question,
+        String answer,
+        String roomId,
+        String userId,
+        Long version
+) {
+}
@@ -0,0 +1,57 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import com.springcloud.demo.asksmicroservice.asks.model.RoomStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RoomStatsRepository extends JpaRepository<RoomStats, String> {
+
+    @Modifying
+    @Query("UPDATE RoomStats s SET s.total = s.total + :total, s.answered = s.answered + :answered, " +
+            "s.answerSeconds = s.answerSeconds + :answerSeconds WHERE s.roomId = :roomId")
+    int addToRoom(String roomId, long total, long answered, long answerSeconds);
+
+    /**
+     * Plain insert of a room without stats, unlike save it never overwrites the stats flushed in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_stats (room_id, total, answered, answer_seconds, epoch) VALUES (:roomId, 0, 0, 0, 0)", nativeQuery = true)
+    void insertEmpty(String roomId);
+
+    /**
+     * Stats of the room locked until the end of the transaction, waiting while a reconciliation holds them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM RoomStats s WHERE s.roomId = :roomId")
+    Optional<RoomStats> lockByRoomId(String roomId);
+
+    /**
+     * Stats of the room share locked until the end of the transaction: ask writes of a room run
+     * concurrently with each other but never with a reconciliation of it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT s FROM RoomStats s WHERE s.roomId = :roomId")
+    Optional<RoomStats> shareByRoomId(String roomId);
+
+    @Query("SELECT DISTINCT a.roomId FROM Ask a")
+    List<String> findRoomIdsOfAsks();
+
+    @Query("SELECT s.roomId FROM RoomStats s")
+    List<String> findRoomIds();
+
+    /**
+     * Stats of the room computed from its asks, only meant for reconciliation.
+     */
+    @Query("SELECT new com.springcloud.demo.asksmicroservice.asks.model.RoomStats(a.roomId, count(a), count(a.answer), " +
+            "coalesce(sum(case when a.answer is not null then (a.respondedAt - a.createdAt) by second else 0 end), 0)) " +
+            "FROM Ask a WHERE a.roomId = :roomId GROUP BY a.roomId")
+    Optional<RoomStats> computeFromAsks(String roomId);
+}
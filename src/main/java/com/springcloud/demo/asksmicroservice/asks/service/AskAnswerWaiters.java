@@ -0,0 +1,156 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Requests waiting for an ask to be answered, woken by id once the answer or the delete is committed,
+ * on this instance or on another one (see AskListingInvalidations).
+ * Waiters are DeferredResults, so no servlet thread nor connection is held while waiting. The
+ * registry is split in stripes, each with its own lock, so waiters of different asks rarely contend.
+ */
+@Component
+public class AskAnswerWaiters {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AskService askService;
+    private final Duration maxTimeout;
+
+    public AskAnswerWaiters(
+            AskService askService,
+            @Value("${asks.answer-wait.max-timeout:60s}") Duration maxTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.askService = askService;
+        this.maxTimeout = maxTimeout;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        Gauge.builder("asks.answer.waiters", waiting, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Register a waiter for the answer of the ask. It is never longer than {@code max-timeout},
+     * the caller decides what is returned on timeout.
+     */
+    public DeferredResult<ResponseAskDTO> await(String id, Duration timeout) {
+        Duration wait = timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+        DeferredResult<ResponseAskDTO> waiter = new DeferredResult<>(wait.toMillis());
+        Stripe stripe = stripeOf(id);
+
+        stripe.add(id, waiter);
+        waiter.onCompletion(() -> stripe.remove(id, waiter));
+
+        return waiter;
+    }
+
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAskChanged(AskChangedEvent event) {
+        if (event.type() != AskChangedEvent.Type.ANSWERED && event.type() != AskChangedEvent.Type.DELETED) {
+            return;
+        }
+
+        String id = event.ask().getId();
+        for (DeferredResult<ResponseAskDTO> waiter : stripeOf(id).take(id)) {
+            if (event.type() == AskChangedEvent.Type.ANSWERED) {
+                waiter.setResult(event.ask());
+            } else {
+                waiter.setErrorResult(new NotFoundException("Not found ask with id: " + id));
+            }
+        }
+    }
+
+    /**
+     * Wake the waiters of an ask answered or deleted on another instance. The message carries no ask,
+     * it is read again only when a request of this instance waits for it.
+     */
+    public void onRemoteChange(String id, AskChangedEvent.Type type) {
+        if (id == null || (type != AskChangedEvent.Type.ANSWERED && type != AskChangedEvent.Type.DELETED)) {
+            return;
+        }
+
+        List<DeferredResult<ResponseAskDTO>> waiters = stripeOf(id).take(id);
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        try {
+            ResponseAskDTO ask = askService.findById(id);
+            waiters.forEach(waiter -> waiter.setResult(ask));
+        } catch (NotFoundException e) {
+            waiters.forEach(waiter -> waiter.setErrorResult(e));
+        }
+    }
+
+    private Stripe stripeOf(String id) {
+        return stripes[Math.floorMod(id.hashCode(), STRIPES)];
+    }
+
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, List<DeferredResult<ResponseAskDTO>>> waitersById = new HashMap<>();
+
+        void add(String id, DeferredResult<ResponseAskDTO> waiter) {
+            lock.lock();
+            try {
+                waitersById.computeIfAbsent(id, key -> new ArrayList<>(1)).add(waiter);
+                waiting.incrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String id, DeferredResult<ResponseAskDTO> waiter) {
+            lock.lock();
+            try {
+                List<DeferredResult<ResponseAskDTO>> waiters = waitersById.get(id);
+                if (waiters != null && waiters.remove(waiter)) {
+                    waiting.decrementAndGet();
+                    if (waiters.isEmpty()) {
+                        waitersById.remove(id);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<DeferredResult<ResponseAskDTO>> take(String id) {
+            lock.lock();
+            try {
+                List<DeferredResult<ResponseAskDTO>> waiters = waitersById.remove(id);
+                if (waiters == null) {
+                    return List.of();
+                }
+                waiting.addAndGet(-waiters.size());
+                return waiters;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Write every ask of a room or of a user as NDJSON. Rows are read from a forward-only, read-only
+ * result set and written as they arrive, so memory does not grow with the rows. On MySQL the
+ * statement streams them one by one ({@code fetchSize=Integer.MIN_VALUE}), other drivers fetch
+ * {@code fetch-size} at a time. Only these statements stream, the rest of the service keeps the
+ * client-side prepared statements of the connection url.
+ */
+@Component
+public class AskExporter {
+
+    private static final String SELECT_ASKS = "SELECT id, created_at, responded_at, question, answer, room_id, user_id, version FROM asks WHERE ";
+    private static final String ORDER_BY = " ORDER BY created_at, id";
+
+    private static final int MYSQL_STREAMING = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonCodec jsonCodec;
+    private final int fetchSize;
+
+    public AskExporter(
+            DataSource dataSource,
+            JsonCodec jsonCodec,
+            @Value("${asks.export.fetch-size:500}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jsonCodec = jsonCodec;
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportByRoom(String roomId, OutputStream out) {
+        return export("room_id", roomId, out);
+    }
+
+    public long exportByUser(String userId, OutputStream out) {
+        return export("user_id", userId, out);
+    }
+
+    private long export(String column, String value, OutputStream out) {
+        NdjsonWriter writer = new NdjsonWriter(out);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ASKS + column + " = ?" + ORDER_BY,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY
+            );
+            statement.setFetchSize(isMySql(connection) ? MYSQL_STREAMING : fetchSize);
+            statement.setString(1, value);
+            return statement;
+        }, writer);
+
+        return writer.rows;
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static ResponseAskDTO toResponseAskDto(ResultSet rs) throws SQLException {
+        Timestamp respondedAt = rs.getTimestamp("responded_at");
+
+        return ResponseAskDTO
+                .builder()
+                .id(rs.getString("id"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime().toString())
+                .respondedAt(respondedAt == null ? null : respondedAt.toLocalDateTime().toString())
+                .question(rs.getString("question"))
+                .answer(rs.getString("answer"))
+                .roomId(rs.getString("room_id"))
+                .userId(rs.getString("user_id"))
+                .version(rs.getLong("version"))
+                .build();
+    }
+
+    private class NdjsonWriter implements RowCallbackHandler {
+
+        private final OutputStream out;
+        private long rows;
+
+        NdjsonWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            jsonCodec.write(out, toResponseAskDto(rs));
+            try {
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+    }
+}
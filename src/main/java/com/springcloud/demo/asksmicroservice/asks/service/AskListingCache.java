@@ -0,0 +1,151 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Cache of ask listings keyed by the filter values. When an ask changes only the listings that can
+ * contain it are invalidated: the ones of its room, the ones of its user without room, and the
+ * unfiltered ones. The keys of every scope are indexed, so an invalidation touches only those keys.
+ * Changes made by other instances arrive through AskListingInvalidations, {@code ttl} bounds how
+ * long a lost one is not seen.
+ * <p>
+ * A listing loaded while its scope is invalidated is not kept: every scope has a generation
+ * (striped to bound memory) that is bumped before the invalidation, and checked after the put.
+ */
+@Component
+public class AskListingCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+    private static final String ALL_SCOPE = "all";
+
+    private final Cache<ListingKey, PageAskDTO> cache;
+    private final Map<String, Set<ListingKey>> keysByScope = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Counter invalidations;
+
+    public AskListingCache(
+            @Value("${asks.listing-cache.max-size:10000}") long maxSize,
+            @Value("${asks.listing-cache.ttl:30s}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((ListingKey key, PageAskDTO page, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+        this.invalidations = Counter.builder("asks.listing.cache.invalidations").register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ask-listings");
+    }
+
+    public PageAskDTO get(FilterAskDTO filters, Supplier<PageAskDTO> loader) {
+        ListingKey key = ListingKey.of(filters);
+
+        PageAskDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String scope = key.scope();
+        int stripe = stripe(scope);
+        long generation = generations.get(stripe);
+        PageAskDTO page = loader.get();
+
+        cache.put(key, page);
+        keysByScope.computeIfAbsent(scope, id -> ConcurrentHashMap.newKeySet()).add(key);
+        if (generations.get(stripe) != generation) {
+            cache.invalidate(key);
+        }
+
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAskChanged(AskChangedEvent event) {
+        invalidate(event.roomId(), event.userId());
+    }
+
+    /**
+     * Drop the listings that can contain an ask of the room and the user.
+     */
+    public void invalidate(String roomId, String userId) {
+        invalidateScope(roomScope(roomId));
+        invalidateScope(userScope(userId));
+        invalidateScope(ALL_SCOPE);
+        invalidations.increment();
+    }
+
+    /**
+     * Drop every listing, e.g. after asks were written without going through AskService.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        keysByScope.clear();
+        cache.invalidateAll();
+    }
+
+    private void invalidateScope(String scope) {
+        generations.incrementAndGet(stripe(scope));
+        Set<ListingKey> keys = keysByScope.remove(scope);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Listings evicted by size or expired leave the index of their scope
+     */
+    private void unindex(ListingKey key) {
+        keysByScope.computeIfPresent(key.scope(), (scope, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static int stripe(String scope) {
+        return Math.floorMod(scope.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static String roomScope(String roomId) {
+        return "room:" + roomId;
+    }
+
+    private static String userScope(String userId) {
+        return "user:" + userId;
+    }
+
+    private record ListingKey(String roomId, String userId, Boolean answered, Integer page, Integer limit, String cursor, String search) {
+
+        static ListingKey of(FilterAskDTO filters) {
+            return new ListingKey(filters.getRoomId(), filters.getUserId(), filters.getAnswered(), filters.getPage(), filters.getLimit(), filters.getCursor(), filters.getSearch());
+        }
+
+        String scope() {
+            if (roomId != null) {
+                return roomScope(roomId);
+            }
+            return userId != null ? userScope(userId) : ALL_SCOPE;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ListingInvalidationDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.messaging.MessagingProducer;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Share the ask changes of this instance with the listing caches of the others. Every instance
+ * consumes the topic in a group of its own, from the latest offset, and skips its own changes,
+ * which AskListingCache already applied. A change lost on the way is seen after the cache ttl.
+ * Answers and deletes given on other instances also wake the local AskAnswerWaiters.
+ */
+@Slf4j
+@Component
+public class AskListingInvalidations {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AskListingCache askListingCache;
+    private final AskAnswerWaiters askAnswerWaiters;
+    private final MessagingProducer messagingProducer;
+    private final JsonCodec jsonCodec;
+    private final String askChangesTopic;
+
+    public AskListingInvalidations(
+            AskListingCache askListingCache,
+            AskAnswerWaiters askAnswerWaiters,
+            MessagingProducer messagingProducer,
+            JsonCodec jsonCodec,
+            @Value("${spring.kafka.topics.ASK_CHANGES_TOPIC}") String askChangesTopic
+    ) {
+        this.askListingCache = askListingCache;
+        this.askAnswerWaiters = askAnswerWaiters;
+        this.messagingProducer = messagingProducer;
+        this.jsonCodec = jsonCodec;
+        this.askChangesTopic = askChangesTopic;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAskChanged(AskChangedEvent event) {
+        ListingInvalidationDTO invalidation = ListingInvalidationDTO
+                .builder()
+                .origin(instanceId)
+                .roomId(event.roomId())
+                .userId(event.userId())
+                .askId(event.ask().getId())
+                .type(event.type())
+                .build();
+
+        messagingProducer.sendMessage(askChangesTopic, event.roomId(), jsonCodec.toBytes(invalidation), Map.of())
+                .whenComplete((ack, e) -> {
+                    if (e != null) {
+                        log.warn("Listing invalidation of room {} not sent: {}", event.roomId(), e.getMessage());
+                    }
+                });
+    }
+
+    @KafkaListener(
+            topics = "${spring.kafka.topics.ASK_CHANGES_TOPIC}",
+            groupId = "${spring.application.name}-listings-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onInvalidation(byte[] payload) {
+        ListingInvalidationDTO invalidation = jsonCodec.fromJson(payload, ListingInvalidationDTO.class);
+        if (!instanceId.equals(invalidation.getOrigin())) {
+            askListingCache.invalidate(invalidation.getRoomId(), invalidation.getUserId());
+            askAnswerWaiters.onRemoteChange(invalidation.getAskId(), invalidation.getType());
+        }
+    }
+}
@@ -1,29 +1,59 @@
 package com.springcloud.demo.asksmicroservice.asks.service;
 
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskItemDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.BatchItemResultDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.BatchResponseDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.DeleteAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.asks.mapper.AskEventEncoder;
 import com.springcloud.demo.asksmicroservice.asks.mapper.AskMapper;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskCursor;
 import com.springcloud.demo.asksmicroservice.asks.repository.AskRepository;
 import com.springcloud.demo.asksmicroservice.asks.repository.AskSpecification;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskView;
+import com.springcloud.demo.asksmicroservice.client.RemoteCallExecutor;
 import com.springcloud.demo.asksmicroservice.client.rooms.RoomClientImpl;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
-import com.springcloud.demo.asksmicroservice.client.users.UserClientImpl;
+import com.springcloud.demo.asksmicroservice.client.users.UserBatchLoader;
 import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
 import com.springcloud.demo.asksmicroservice.dto.SimpleResponseDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.BadRequestException;
+import com.springcloud.demo.asksmicroservice.exceptions.ConflictException;
 import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
 import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
-import com.springcloud.demo.asksmicroservice.utils.JsonUtils;
-import com.springcloud.demo.asksmicroservice.messaging.MessagingProducer;
+import com.springcloud.demo.asksmicroservice.messaging.model.OutboxEvent;
+import com.springcloud.demo.asksmicroservice.messaging.repository.OutboxEventRepository;
+import com.springcloud.demo.asksmicroservice.rooms.RoomOwnership;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,86 +62,404 @@ public class AskService {
     private final AskRepository askRepository;
     private final AskSpecification askSpecification;
     private final RoomClientImpl roomClient;
-    private final UserClientImpl userClient;
-    private final MessagingProducer messagingProducer;
+    private final UserBatchLoader userBatchLoader;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RemoteCallExecutor remoteCallExecutor;
+    private final AskEventEncoder askEventEncoder;
+    private final JsonCodec jsonCodec;
+    private final AskListingCache askListingCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final RoomOwnership roomOwnership;
+    private final RoomStatsService roomStatsService;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
     @Value("${spring.kafka.topics.ASK_CREATED_TOPIC}")
     private String askCreatedTopic;
 
+    @Value("${asks.pagination.max-limit:100}")
+    private int maxLimit;
+
     public ResponseAskDTO create(CreateAskDTO createAskDTO, String idUserLogged) {
 
-//        Check exist room
-        RoomDTO room = roomClient.findById(createAskDTO.getRoomId());
-        UserDTO owner = userClient.findById(room.getOwnerId());
-        room.setOwner(owner);
-        UserDTO user = userClient.findById(idUserLogged);
+//        Check exist room and load its owner while the user logged is loaded in parallel
+        CompletableFuture<RoomDTO> roomWithOwner = roomWithOwner(createAskDTO.getRoomId());
+        CompletableFuture<UserDTO> userLogged = userBatchLoader.load(idUserLogged);
+
+        RoomDTO room = RemoteCallExecutor.await(roomWithOwner);
+        UserDTO user = RemoteCallExecutor.await(userLogged);
 
-        Ask askCreated = AskMapper.createAskDtoToAsk(createAskDTO);
-        askCreated.setUserId(idUserLogged);
+        Ask askToCreate = AskMapper.createAskDtoToAsk(createAskDTO);
+        askToCreate.setUserId(idUserLogged);
 
-        askCreated = askRepository.save(askCreated);
+        // Ask and its event are saved in the same transaction, OutboxRelay publishes the event.
+        // Events are keyed by room so the events of a room keep their order in one partition
+        Written<Ask> askCreated = transactionTemplate.execute(status -> {
+            long statsEpoch = roomStatsService.epochOf(askToCreate.getRoomId());
+            Ask ask = askRepository.saveAndFlush(askToCreate);
+            AskEventEncoder.EncodedEvent event = askEventEncoder.encode(ask, room, user);
+            outboxEventRepository.save(OutboxEvent
+                    .builder()
+                    .topic(askCreatedTopic)
+                    .messageKey(ask.getRoomId())
+                    .payload(event.payload())
+                    .headers(jsonCodec.toJson(event.headers()))
+                    .build());
+            return new Written<>(ask, statsEpoch);
+        });
 
-        messagingProducer.sendMessage(askCreatedTopic, JsonUtils.toJson(AskMapper.askToPublishAskEventDto(askCreated,room,user)));
+        ResponseAskDTO response = AskMapper.askToResponseAskDto(askCreated.value());
+        eventPublisher.publishEvent(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, response, askCreated.statsEpoch()));
 
-        return AskMapper.askToResponseAskDto(askCreated);
+        return response;
+    }
+
+    /**
+     * Create several asks of a room checking the room and the user once. Valid questions are inserted
+     * with their outbox events in one transaction, with JDBC batching, invalid ones are reported in their result.
+     */
+    public BatchResponseDTO createBatch(CreateAskBatchDTO createAskBatchDTO, String idUserLogged) {
+        CompletableFuture<RoomDTO> roomWithOwner = roomWithOwner(createAskBatchDTO.getRoomId());
+        CompletableFuture<UserDTO> userLogged = userBatchLoader.load(idUserLogged);
+
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        List<Ask> asksToCreate = new ArrayList<>();
+        List<BatchItemResultDTO> pendingResults = new ArrayList<>();
+        List<String> questions = createAskBatchDTO.getQuestions();
+        for (int i = 0; i < questions.size(); i++) {
+            CreateAskDTO createAskDTO = new CreateAskDTO(questions.get(i), createAskBatchDTO.getRoomId());
+            BatchItemResultDTO result = BatchItemResultDTO.builder().index(i).build();
+            results.add(result);
+
+            Set<ConstraintViolation<CreateAskDTO>> violations = validator.validate(createAskDTO);
+            if (!violations.isEmpty()) {
+                result.setError(violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            Ask askToCreate = AskMapper.createAskDtoToAsk(createAskDTO);
+            askToCreate.setUserId(idUserLogged);
+            asksToCreate.add(askToCreate);
+            pendingResults.add(result);
+        }
+
+        RoomDTO room = RemoteCallExecutor.await(roomWithOwner);
+        UserDTO user = RemoteCallExecutor.await(userLogged);
+
+        if (asksToCreate.isEmpty()) {
+            return BatchResponseDTO.of(results);
+        }
+
+        Written<List<Ask>> asksCreated = transactionTemplate.execute(status -> {
+            long statsEpoch = roomStatsService.epochOf(createAskBatchDTO.getRoomId());
+            List<Ask> asks = askRepository.saveAll(asksToCreate);
+            askRepository.flush();
+            outboxEventRepository.saveAll(asks.stream().map(ask -> {
+                AskEventEncoder.EncodedEvent event = askEventEncoder.encode(ask, room, user);
+                return OutboxEvent
+                        .builder()
+                        .topic(askCreatedTopic)
+                        .messageKey(ask.getRoomId())
+                        .payload(event.payload())
+                        .headers(jsonCodec.toJson(event.headers()))
+                        .build();
+            }).toList());
+            return new Written<>(asks, statsEpoch);
+        });
+
+        for (int i = 0; i < asksCreated.value().size(); i++) {
+            ResponseAskDTO response = AskMapper.askToResponseAskDto(asksCreated.value().get(i));
+            pendingResults.get(i).setAsk(response);
+            eventPublisher.publishEvent(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, response, asksCreated.statsEpoch()));
+        }
+
+        return BatchResponseDTO.of(results);
+    }
+
+    /**
+     * Users are looked up through UserBatchLoader, so owners and users logged of concurrent
+     * requests are resolved together with one users-ms request.
+     */
+    private CompletableFuture<RoomDTO> roomWithOwner(String roomId) {
+        return remoteCallExecutor.supply(() -> roomClient.findById(roomId))
+                .thenCompose(room -> userBatchLoader.load(room.getOwnerId()).thenApply(owner -> {
+                    room.setOwner(owner);
+                    return room;
+                }));
     }
 
     public List<ResponseAskDTO> findAll(FilterAskDTO filters) {
-        Pageable pagination = PageRequest.of(filters.getPage() - 1, filters.getLimit());
-        List<Ask> asks = askRepository.findAll(askSpecification.withFilters(filters), pagination).getContent();
+        int limit = limitOf(filters);
+        long offset = (long) Math.max(filters.getPage() - 1, 0) * limit;
+
+        return askListingCache.get(filters, () -> {
+            List<AskView> asks = isSearch(filters)
+                    ? askRepository.search(askSpecification.withFilters(filters), filters.getSearch().strip(), offset, limit)
+                    : askRepository.findWindow(askSpecification.withFilters(filters), Sort.unsorted(), offset, limit);
 
-        return asks.stream().map(AskMapper::askToResponseAskDto).toList();
+            return PageAskDTO
+                    .builder()
+                    .asks(asks.stream().map(AskMapper::askViewToResponseAskDto).toList())
+                    .build();
+        }).getAsks();
+    }
+
+    /**
+     * Keyset pagination from newest to oldest. One extra row is fetched to know if there is a next page.
+     */
+    public PageAskDTO findAllByCursor(FilterAskDTO filters) {
+        if (isSearch(filters)) {
+            throw new BadRequestException("Search results are paginated by page, not by cursor");
+        }
+        return askListingCache.get(filters, () -> findPageByCursor(filters));
+    }
+
+    private PageAskDTO findPageByCursor(FilterAskDTO filters) {
+        int limit = limitOf(filters);
+        Specification<Ask> specification = askSpecification.withFilters(filters);
+        if (filters.getCursor() != null && !filters.getCursor().isBlank()) {
+            specification = specification.and(askSpecification.after(AskCursor.decode(filters.getCursor())));
+        }
+
+        List<AskView> asks = askRepository.findWindow(specification, NEWEST_FIRST, 0, limit + 1);
+
+        String nextCursor = null;
+        if (asks.size() > limit) {
+            asks = asks.subList(0, limit);
+            nextCursor = AskCursor.of(asks.getLast()).encode();
+        }
+
+        return PageAskDTO
+                .builder()
+                .asks(asks.stream().map(AskMapper::askViewToResponseAskDto).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static boolean isSearch(FilterAskDTO filters) {
+        return filters.getSearch() != null && !filters.getSearch().isBlank();
+    }
+
+    private int limitOf(FilterAskDTO filters) {
+        return Math.max(Math.min(filters.getLimit(), maxLimit), 1);
     }
 
     public ResponseAskDTO findById(String id) {
-        Ask ask = askRepository.findById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
+        AskView ask = askRepository.findViewById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
 
-        return AskMapper.askToResponseAskDto(ask);
+        return AskMapper.askViewToResponseAskDto(ask);
     }
 
-    public ResponseAskDTO answer(String id, AnswerAskDTO answerAskDTO, String idUserLogged) {
-        Ask ask = askRepository.findById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
+    /**
+     * Answer with a single conditional update. With an expected version (from If-Match) the ask
+     * must not have changed since the client read it, otherwise a ConflictException is thrown.
+     */
+    public ResponseAskDTO answer(String id, AnswerAskDTO answerAskDTO, String idUserLogged, Long expectedVersion) {
+        AskView ask = findToModify(id, idUserLogged, expectedVersion);
+        AskView answered = withAnswer(ask, answerAskDTO.getAnswer(), LocalDateTime.now());
 
-        // Check if user logged is owner of room
-        RoomDTO roomOfAsk = roomClient.findById(ask.getRoomId());
-        if(!roomOfAsk.getOwnerId().equals(idUserLogged)){
-            throw new ForbiddenException("Not have permission to answer ask or room that belong to another user");
+        Long statsEpoch = writeIfUnchanged(ask, () -> askRepository.updateAnswerIfUnchanged(id, ask.version(), answered.answer(), answered.respondedAt()));
+        if (statsEpoch == null) {
+            throw changedMeanwhile(id);
+        }
+
+        ResponseAskDTO response = AskMapper.askViewToResponseAskDto(answered);
+        eventPublisher.publishEvent(new AskChangedEvent(AskChangedEvent.Type.ANSWERED, AskMapper.askViewToResponseAskDto(ask), response, statsEpoch));
+
+        return response;
+    }
+
+    public SimpleResponseDTO delete(String id, String idUserLogged, Long expectedVersion) {
+        AskView ask = findToModify(id, idUserLogged, expectedVersion);
+
+        Long statsEpoch = writeIfUnchanged(ask, () -> askRepository.deleteIfUnchanged(id, ask.version()));
+        if (statsEpoch == null) {
+            throw changedMeanwhile(id);
         }
 
-        ask.setAnswer(answerAskDTO.getAnswer());
+        ResponseAskDTO deleted = AskMapper.askViewToResponseAskDto(ask);
+        eventPublisher.publishEvent(new AskChangedEvent(AskChangedEvent.Type.DELETED, deleted, deleted, statsEpoch));
+
+        return new SimpleResponseDTO(true);
+    }
+
+    public ResponseAskDTO deleteAnswer(String id, String idUserLogged, Long expectedVersion) {
+        AskView ask = findToModify(id, idUserLogged, expectedVersion);
+        AskView unanswered = withAnswer(ask, null, LocalDateTime.now());
+
+        Long statsEpoch = writeIfUnchanged(ask, () -> askRepository.updateAnswerIfUnchanged(id, ask.version(), null, unanswered.respondedAt()));
+        if (statsEpoch == null) {
+            throw changedMeanwhile(id);
+        }
 
-        ask = askRepository.save(ask);
+        ResponseAskDTO response = AskMapper.askViewToResponseAskDto(unanswered);
+        eventPublisher.publishEvent(new AskChangedEvent(AskChangedEvent.Type.ANSWER_DELETED, AskMapper.askViewToResponseAskDto(ask), response, statsEpoch));
 
-        return AskMapper.askToResponseAskDto(ask);
+        return response;
     }
 
-    public SimpleResponseDTO delete(String id, String idUserLogged) {
-        Ask ask = askRepository.findById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
+    /**
+     * The read and the write are separate short transactions, no connection is held while the
+     * owner is checked, which may call rooms-ms.
+     */
+    private AskView findToModify(String id, String idUserLogged, Long expectedVersion) {
+        AskView ask = askRepository.findViewById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
 
         // Check if user logged is owner of room
-        RoomDTO roomOfAsk = roomClient.findById(ask.getRoomId());
-        if(!roomOfAsk.getOwnerId().equals(idUserLogged)){
+        String ownerOfRoom = roomOwnership.ownerOf(ask.roomId());
+        if(!ownerOfRoom.equals(idUserLogged)){
             throw new ForbiddenException("Not have permission to answer ask or room that belong to another user");
         }
 
-        askRepository.delete(ask);
+        if (expectedVersion != null && !expectedVersion.equals(ask.version())) {
+            throw new ConflictException("Ask with id: " + id + " was modified, current version is " + ask.version());
+        }
 
-        return new SimpleResponseDTO(true);
+        return ask;
     }
 
-    public ResponseAskDTO deleteAnswer(String id, String idUserLogged) {
-        Ask ask = askRepository.findById(id).orElseThrow(()-> new NotFoundException("Not found ask with id: " + id));
+    /**
+     * Run the conditional write with the epoch of the room stats read in its transaction,
+     * null when it matched no row.
+     */
+    private Long writeIfUnchanged(AskView ask, IntSupplier write) {
+        return transactionTemplate.execute(status -> {
+            long statsEpoch = roomStatsService.epochOf(ask.roomId());
+            return write.getAsInt() == 0 ? null : statsEpoch;
+        });
+    }
 
-        // Check if user logged is owner of room
-        RoomDTO roomOfAsk = roomClient.findById(ask.getRoomId());
-        if(!roomOfAsk.getOwnerId().equals(idUserLogged)){
+    /**
+     * The conditional write matched no row, only a failed write pays the extra query telling why.
+     */
+    private RuntimeException changedMeanwhile(String id) {
+        if (!askRepository.existsById(id)) {
+            return new NotFoundException("Not found ask with id: " + id);
+        }
+        return new ConflictException("Ask with id: " + id + " was modified concurrently, read it again");
+    }
+
+    /**
+     * The ask as written by an answer update, which also bumps the version.
+     */
+    private static AskView withAnswer(AskView ask, String answer, LocalDateTime respondedAt) {
+        return new AskView(
+                ask.id(),
+                ask.createdAt(),
+                respondedAt,
+                ask.question(),
+                answer,
+                ask.roomId(),
+                ask.userId(),
+                ask.version() + 1
+        );
+    }
+
+    /**
+     * Answer several asks of a room with one ownership check and one batched update.
+     * Asks not found in the room are reported in their result.
+     */
+    public BatchResponseDTO answerBatch(AnswerAskBatchDTO answerAskBatchDTO, String idUserLogged) {
+        String roomId = answerAskBatchDTO.getRoomId();
+        checkRoomOwner(roomId, idUserLogged);
+
+        Map<String, String> answersById = new LinkedHashMap<>();
+        answerAskBatchDTO.getAnswers().forEach(item -> answersById.put(item.getId(), item.getAnswer()));
+        LocalDateTime respondedAt = LocalDateTime.now();
+
+        List<AskChangedEvent> changes = transactionTemplate.execute(status -> {
+            long statsEpoch = roomStatsService.epochOf(roomId);
+            Map<String, AskView> found = findInRoom(roomId, answersById.keySet());
+            Map<String, String> answersOfFound = new LinkedHashMap<>(answersById);
+            answersOfFound.keySet().retainAll(found.keySet());
+
+            Map<String, Long> versionsOfFound = found.values().stream().collect(Collectors.toMap(AskView::id, AskView::version));
+
+            return askRepository.answerAll(roomId, answersOfFound, versionsOfFound, respondedAt).stream().map(id -> {
+                AskView previous = found.get(id);
+                AskView answered = withAnswer(previous, answersOfFound.get(id), respondedAt);
+                return new AskChangedEvent(
+                        AskChangedEvent.Type.ANSWERED,
+                        AskMapper.askViewToResponseAskDto(previous),
+                        AskMapper.askViewToResponseAskDto(answered),
+                        statsEpoch
+                );
+            }).toList();
+        });
+
+        return batchResponseOf(answerAskBatchDTO.getAnswers().stream().map(AnswerAskItemDTO::getId).toList(), changes);
+    }
+
+    /**
+     * Delete several asks of a room with one ownership check and one batched delete.
+     * Asks not found in the room, or changed since they were read, are reported in their result.
+     */
+    public BatchResponseDTO deleteBatch(DeleteAskBatchDTO deleteAskBatchDTO, String idUserLogged) {
+        String roomId = deleteAskBatchDTO.getRoomId();
+        checkRoomOwner(roomId, idUserLogged);
+
+        List<AskChangedEvent> changes = transactionTemplate.execute(status -> {
+            Map<String, AskView> found = findInRoom(roomId, deleteAskBatchDTO.getIds());
+            if (found.isEmpty()) {
+                return List.<AskChangedEvent>of();
+            }
+            Map<String, Long> versionsOfFound = found.values().stream().collect(Collectors.toMap(AskView::id, AskView::version));
+            long statsEpoch = roomStatsService.epochOf(roomId);
+
+            // Asks changed or deleted since they were found are reported as not found
+            return askRepository.deleteAll(roomId, versionsOfFound).stream().map(id -> {
+                ResponseAskDTO deleted = AskMapper.askViewToResponseAskDto(found.get(id));
+                return new AskChangedEvent(AskChangedEvent.Type.DELETED, deleted, deleted, statsEpoch);
+            }).toList();
+        });
+
+        return batchResponseOf(deleteAskBatchDTO.getIds(), changes);
+    }
+
+    private void checkRoomOwner(String roomId, String idUserLogged) {
+        if (!roomOwnership.ownerOf(roomId).equals(idUserLogged)) {
             throw new ForbiddenException("Not have permission to answer ask or room that belong to another user");
         }
+    }
 
-        ask.setAnswer(null);
+    private Map<String, AskView> findInRoom(String roomId, Collection<String> ids) {
+        return askRepository.findWindow(askSpecification.inRoom(roomId, ids), Sort.unsorted(), 0, ids.size())
+                .stream()
+                .collect(Collectors.toMap(AskView::id, Function.identity()));
+    }
 
-        ask = askRepository.save(ask);
+    /**
+     * Publish the changes and report the result of each id in the position it had in the request.
+     */
+    private BatchResponseDTO batchResponseOf(List<String> ids, List<AskChangedEvent> changes) {
+        Map<String, ResponseAskDTO> changed = new LinkedHashMap<>();
+        changes.forEach(change -> {
+            changed.put(change.ask().getId(), change.ask());
+            eventPublisher.publishEvent(change);
+        });
+
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            ResponseAskDTO ask = changed.get(ids.get(i));
+            results.add(BatchItemResultDTO
+                    .builder()
+                    .index(i)
+                    .ask(ask)
+                    .error(ask == null ? "Not found ask with id: " + ids.get(i) : null)
+                    .build());
+        }
+
+        return BatchResponseDTO.of(results);
+    }
 
-        return AskMapper.askToResponseAskDto(ask);
+    /**
+     * What a transaction wrote with the epoch of the room stats it read.
+     */
+    private record Written<T>(T value, long statsEpoch) {
     }
 }
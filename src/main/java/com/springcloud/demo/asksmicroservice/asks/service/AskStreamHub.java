@@ -0,0 +1,203 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan out ask changes to the SSE subscribers of their room. Connections are async requests, no
+ * thread is held while a subscriber waits: events are queued in a bounded buffer per subscriber
+ * and written by a virtual thread per drain, whether request threads are virtual or not, so a
+ * blocked write only parks its own sender and never delays other subscribers. A subscriber whose
+ * buffer is full is evicted and has to reconnect. A heartbeat comment every {@code heartbeat}
+ * keeps proxies from closing idle connections and finds the dead ones.
+ */
+@Slf4j
+@Component
+public class AskStreamHub {
+
+    private final Map<String, Set<Subscriber>> subscribersByRoom = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final JsonCodec jsonCodec;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter evictions;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ask-stream-heartbeat").daemon().factory()
+    );
+
+    public AskStreamHub(
+            JsonCodec jsonCodec,
+            @Value("${asks.stream.buffer-size:32}") int bufferSize,
+            @Value("${asks.stream.heartbeat:15s}") Duration heartbeat,
+            @Value("${asks.stream.timeout:30m}") Duration timeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.jsonCodec = jsonCodec;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        // A fixed pool of platform senders would be exhausted by as many blocked writes
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ask-stream-sender-", 0).factory());
+        this.evictions = Counter.builder("asks.stream.evictions").register(meterRegistry);
+
+        Gauge.builder("asks.stream.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeat.toNanos(), heartbeat.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public SseEmitter subscribe(String roomId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribe(roomId, emitter);
+        return emitter;
+    }
+
+    void subscribe(String roomId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(roomId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscribersByRoom.compute(roomId, (id, room) -> {
+            Set<Subscriber> subscribed = room == null ? ConcurrentHashMap.newKeySet() : room;
+            subscribed.add(subscriber);
+            return subscribed;
+        });
+        subscribers.incrementAndGet();
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAskChanged(AskChangedEvent event) {
+        Set<Subscriber> room = subscribersByRoom.get(event.roomId());
+        if (room == null) {
+            return;
+        }
+
+        // Serialized once for the whole room
+        Set<DataWithMediaType> sse = SseEmitter.event()
+                .id(event.ask().getId())
+                .name(event.type().name().toLowerCase())
+                .data(jsonCodec.toJson(event.ask()))
+                .build();
+        room.forEach(subscriber -> subscriber.offer(sse));
+    }
+
+    private void heartbeat() {
+        Set<DataWithMediaType> sse = SseEmitter.event().comment("heartbeat").build();
+        subscribersByRoom.values().forEach(room -> room.forEach(subscriber -> subscriber.offer(sse)));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribersByRoom.computeIfPresent(subscriber.roomId, (id, room) -> {
+            room.remove(subscriber);
+            return room.isEmpty() ? null : room;
+        });
+        subscribers.decrementAndGet();
+    }
+
+    private void send(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Ask stream is shutting down");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdown();
+        senders.shutdown();
+        subscribersByRoom.values().forEach(room -> room.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private final class Subscriber {
+
+        private final String roomId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(String roomId, SseEmitter emitter) {
+            this.roomId = roomId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> sse) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(sse)) {
+                evict();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                send(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> sse;
+                while (!closed.get() && (sse = buffer.poll()) != null) {
+                    emitter.send(sse);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            // An event offered after the last poll but before draining was reset
+            if (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                send(this::drain);
+            }
+        }
+
+        /**
+         * The emitter is completed by a sender, the publisher must not wait on a blocked write
+         */
+        private void evict() {
+            if (close()) {
+                evictions.increment();
+                send(emitter::complete);
+            }
+        }
+
+        private boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            buffer.clear();
+            remove(this);
+            return true;
+        }
+    }
+}
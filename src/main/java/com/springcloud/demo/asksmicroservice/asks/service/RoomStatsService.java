@@ -0,0 +1,330 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.RoomStatsDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.asks.model.RoomStats;
+import com.springcloud.demo.asksmicroservice.asks.repository.RoomStatsRepository;
+import com.springcloud.demo.asksmicroservice.messaging.model.RelayLock;
+import com.springcloud.demo.asksmicroservice.messaging.repository.RelayLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ask counts and answer time per room without scanning the asks. Changes are added to in-memory
+ * accumulators, one per room holding a few striped counters, and flushed to room_stats every
+ * {@code flush-delay-ms}. Every {@code reconcile-delay-ms} one instance recomputes the stats of
+ * each room from its asks, fixing the drift left by lost flushes or asks written outside AskService.
+ * <p>
+ * Each reconciliation of a room bumps its {@code epoch}. Ask writes read the epoch of their room
+ * share locked in their own transaction ({@link #epochOf}) and the reconciliation locks the room
+ * before reading its asks, so a change is in the recomputed stats exactly when its epoch is older.
+ * Changes are accumulated per epoch and a flush drops the ones older than the stored epoch,
+ * whichever instance made them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomStatsService {
+
+    static final String RECONCILE_LOCK_NAME = "room-stats";
+
+    private final RoomStatsRepository roomStatsRepository;
+    private final RelayLockRepository relayLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${asks.stats.reconcile-delay-ms:3600000}")
+    private long reconcileDelayMs;
+
+    // Changes per room not flushed yet, a room is removed once a flush drains it
+    private final Map<String, Accumulator> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Epoch of the stats of the room, to be called in the transaction writing its asks.
+     */
+    public long epochOf(String roomId) {
+        return roomStatsRepository.shareByRoomId(roomId).map(RoomStats::getEpoch).orElse(0L);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAskChanged(AskChangedEvent event) {
+        ResponseAskDTO before = event.type() == AskChangedEvent.Type.CREATED ? null : event.previous();
+        ResponseAskDTO after = event.type() == AskChangedEvent.Type.DELETED ? null : event.ask();
+
+        add(event.roomId(), event.statsEpoch(), new Sums(
+                (after == null ? 0 : 1) - (before == null ? 0 : 1),
+                answered(after) - answered(before),
+                answerSeconds(after) - answerSeconds(before)
+        ));
+    }
+
+    /**
+     * Stats of the room including the changes of this instance not flushed yet.
+     */
+    public RoomStatsDTO findByRoomId(String roomId) {
+        RoomStats stats = roomStatsRepository.findById(roomId)
+                .orElseGet(() -> new RoomStats(roomId, 0L, 0L, 0L));
+
+        long total = stats.getTotal();
+        long answered = stats.getAnswered();
+        long answerSeconds = stats.getAnswerSeconds();
+
+        Accumulator accumulator = pending.get(roomId);
+        if (accumulator != null) {
+            Sums sums = accumulator.sumSince(stats.getEpoch());
+            total += sums.total();
+            answered += sums.answered();
+            answerSeconds += sums.answerSeconds();
+        }
+
+        return RoomStatsDTO
+                .builder()
+                .roomId(roomId)
+                .total(total)
+                .answered(answered)
+                .unanswered(total - answered)
+                .averageAnswerSeconds(answered > 0 ? (double) answerSeconds / answered : null)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${asks.stats.flush-delay-ms:5000}")
+    public void flush() {
+        pending.forEach((roomId, accumulator) -> {
+            // Changes made from now on go to a new accumulator
+            pending.remove(roomId, accumulator);
+            Map<Long, Sums> byEpoch = accumulator.drain();
+            if (byEpoch.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> addToRoom(roomId, byEpoch));
+            } catch (RuntimeException e) {
+                // Kept for the next flush
+                log.warn("Room stats of {} not flushed: {}", roomId, e.getMessage());
+                byEpoch.forEach((epoch, sums) -> add(roomId, epoch, sums));
+            }
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${asks.stats.reconcile-delay-ms:3600000}",
+            fixedDelayString = "${asks.stats.reconcile-delay-ms:3600000}"
+    )
+    public void reconcile() {
+        if (!claimReconciliation()) {
+            log.debug("Room stats are being reconciled by another instance");
+            return;
+        }
+
+        Set<String> storedRoomIds = new HashSet<>(roomStatsRepository.findRoomIds());
+        Set<String> roomIds = new TreeSet<>(storedRoomIds);
+        roomIds.addAll(roomStatsRepository.findRoomIdsOfAsks());
+
+        try {
+            for (String roomId : roomIds) {
+                try {
+                    if (!storedRoomIds.contains(roomId)) {
+                        createRoom(roomId);
+                    }
+                    transactionTemplate.executeWithoutResult(status -> reconcileRoom(roomId));
+                } catch (PessimisticLockingFailureException | DataIntegrityViolationException e) {
+                    // Left to the next reconciliation
+                    log.warn("Room stats of {} not reconciled: {}", roomId, e.getMessage());
+                }
+            }
+        } finally {
+            releaseReconciliation();
+        }
+    }
+
+    /**
+     * Only one instance reconciles at a time, the rooms are then locked one by one. The claim is a lease
+     * of half {@code reconcile-delay-ms}, so the reconciliation goes on when its instance dies.
+     */
+    private boolean claimReconciliation() {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                RelayLock lock = relayLockRepository.lockByName(RECONCILE_LOCK_NAME)
+                        .orElseGet(() -> relayLockRepository.saveAndFlush(RelayLock.builder().name(RECONCILE_LOCK_NAME).build()));
+                LocalDateTime now = LocalDateTime.now();
+                if (lock.getLockedAt() != null && lock.getLockedAt().isAfter(now.minus(Duration.ofMillis(reconcileDelayMs / 2)))) {
+                    return false;
+                }
+                lock.setLockedAt(now);
+                return true;
+            }));
+        } catch (PessimisticLockingFailureException | DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void releaseReconciliation() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> relayLockRepository.lockByName(RECONCILE_LOCK_NAME)
+                    .ifPresent(lock -> lock.setLockedAt(null)));
+        } catch (RuntimeException e) {
+            log.warn("Room stats reconciliation not released, it expires with its lease: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A row to lock before the room is reconciled, writes locking a missing row would not keep it from reading their asks.
+     */
+    private void createRoom(String roomId) {
+        try {
+            roomStatsRepository.insertEmpty(roomId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Room stats of {} already flushed", roomId);
+        }
+    }
+
+    private void reconcileRoom(String roomId) {
+        // Locked before the asks are read: writes sharing the old epoch are committed and counted,
+        // the next ones wait and read the new epoch
+        RoomStats stats = roomStatsRepository.lockByRoomId(roomId).orElseThrow();
+        RoomStats actual = roomStatsRepository.computeFromAsks(roomId).orElseGet(() -> new RoomStats(roomId, 0L, 0L, 0L));
+
+        stats.setTotal(actual.getTotal());
+        stats.setAnswered(actual.getAnswered());
+        stats.setAnswerSeconds(actual.getAnswerSeconds());
+        stats.setEpoch(stats.getEpoch() + 1);
+    }
+
+    private void add(String roomId, long epoch, Sums sums) {
+        if (sums.isEmpty()) {
+            return;
+        }
+        // A drained accumulator refuses the change, it goes to the one replacing it
+        while (!pending.computeIfAbsent(roomId, id -> new Accumulator()).add(epoch, sums)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void addToRoom(String roomId, Map<Long, Sums> byEpoch) {
+        RoomStats stored = roomStatsRepository.lockByRoomId(roomId).orElse(null);
+        long epoch = stored == null ? 0 : stored.getEpoch();
+
+        long total = 0;
+        long answered = 0;
+        long answerSeconds = 0;
+        for (Map.Entry<Long, Sums> entry : byEpoch.entrySet()) {
+            // Changes of an older epoch are already in the reconciled stats
+            if (entry.getKey() >= epoch) {
+                total += entry.getValue().total();
+                answered += entry.getValue().answered();
+                answerSeconds += entry.getValue().answerSeconds();
+            }
+        }
+        if (total == 0 && answered == 0 && answerSeconds == 0) {
+            return;
+        }
+
+        if (stored != null) {
+            roomStatsRepository.addToRoom(roomId, total, answered, answerSeconds);
+        } else {
+            roomStatsRepository.saveAndFlush(new RoomStats(roomId, total, answered, answerSeconds));
+        }
+    }
+
+    private static long answered(ResponseAskDTO ask) {
+        return ask != null && ask.getAnswer() != null ? 1 : 0;
+    }
+
+    private static long answerSeconds(ResponseAskDTO ask) {
+        if (answered(ask) == 0 || ask.getRespondedAt() == null) {
+            return 0;
+        }
+        return Duration.between(LocalDateTime.parse(ask.getCreatedAt()), LocalDateTime.parse(ask.getRespondedAt())).toSeconds();
+    }
+
+    private record Sums(long total, long answered, long answerSeconds) {
+
+        boolean isEmpty() {
+            return total == 0 && answered == 0 && answerSeconds == 0;
+        }
+    }
+
+    /**
+     * Striped counters of a room per epoch, usually one epoch and never more than the reconciliations
+     * between two flushes. Adds share the read lock, the flush drains under the write lock and retires it.
+     */
+    private static final class Accumulator {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Cell> byEpoch = new ConcurrentHashMap<>();
+        private boolean drained;
+
+        boolean add(long epoch, Sums sums) {
+            lock.readLock().lock();
+            try {
+                if (drained) {
+                    return false;
+                }
+                Cell cell = byEpoch.computeIfAbsent(epoch, e -> new Cell());
+                cell.total.add(sums.total());
+                cell.answered.add(sums.answered());
+                cell.answerSeconds.add(sums.answerSeconds());
+                return true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Map<Long, Sums> drain() {
+            lock.writeLock().lock();
+            try {
+                drained = true;
+                Map<Long, Sums> sums = new HashMap<>();
+                byEpoch.forEach((epoch, cell) -> sums.put(epoch, cell.sum()));
+                return sums;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Sums sumSince(long epoch) {
+            long total = 0;
+            long answered = 0;
+            long answerSeconds = 0;
+            for (Map.Entry<Long, Cell> entry : byEpoch.entrySet()) {
+                if (entry.getKey() >= epoch) {
+                    Sums sums = entry.getValue().sum();
+                    total += sums.total();
+                    answered += sums.answered();
+                    answerSeconds += sums.answerSeconds();
+                }
+            }
+            return new Sums(total, answered, answerSeconds);
+        }
+    }
+
+    private static final class Cell {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder answered = new LongAdder();
+        private final LongAdder answerSeconds = new LongAdder();
+
+        Sums sum() {
+            return new Sums(total.sum(), answered.sum(), answerSeconds.sum());
+        }
+    }
+}
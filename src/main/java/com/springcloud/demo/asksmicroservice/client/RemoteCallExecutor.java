@@ -0,0 +1,62 @@
+package com.springcloud.demo.asksmicroservice.client;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Entity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking calls to other microservices in parallel, on virtual threads by default.
+ * The X-Ray trace entity of the caller is propagated so {@code XRayFeignInterceptor} still finds the segment.
+ */
+@Component
+public class RemoteCallExecutor {
+
+    private final Executor executor;
+
+    public RemoteCallExecutor() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public RemoteCallExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        Entity traceEntity = AWSXRay.getTraceEntity();
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (traceEntity == null) {
+                return call.get();
+            }
+
+            AtomicReference<T> result = new AtomicReference<>();
+            traceEntity.run(() -> result.set(call.get()));
+            return result.get();
+        }, executor);
+    }
+
+    /**
+     * Wait for a remote call and rethrow its original exception, so fallbacks and
+     * exception handlers see the same errors as a direct call.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
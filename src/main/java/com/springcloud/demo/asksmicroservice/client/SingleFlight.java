@@ -0,0 +1,59 @@
+package com.springcloud.demo.asksmicroservice.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicate concurrent calls for the same key: the first caller executes the call and the
+ * callers that arrive while it is in flight wait for it and get the same result or exception.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String client;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String client) {
+        this.client = client;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> ownCall = new CompletableFuture<>();
+        CompletableFuture<V> currentCall = inFlight.putIfAbsent(key, ownCall);
+
+        if (currentCall != null) {
+            coalesced.increment();
+            return RemoteCallExecutor.await(currentCall);
+        }
+
+        try {
+            V result = call.get();
+            ownCall.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            ownCall.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ownCall);
+        }
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("clients.calls.coalesced", this, SingleFlight::coalescedCount)
+                .description("Calls served by an identical call already in flight")
+                .tag("client", client)
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.springcloud.demo.asksmicroservice.client.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Utilization of the connection pool behind the Feign clients, as {@code httpcomponents.httpclient.pool.*}
+ * tagged {@code httpclient=feign}. Nothing is bound when the JDK HTTP/2 client is enabled instead,
+ * it has no pool to observe.
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    static final String POOL_NAME = "feign";
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, POOL_NAME).bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.springcloud.demo.asksmicroservice.client.config;
+
+import com.springcloud.demo.asksmicroservice.client.SingleFlight;
+import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<String, RoomDTO> roomsInFlight() {
+        return new SingleFlight<>("rooms-ms");
+    }
+}
@@ -0,0 +1,91 @@
+package com.springcloud.demo.asksmicroservice.client.rooms;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Local cache of rooms-ms responses. Rooms found are kept for {@code ttl} and the 404 responses
+ * for the shorter {@code not-found-ttl}, so a room created just after a miss is seen quickly.
+ */
+@Component
+public class RoomCache {
+
+    private final Cache<String, CachedRoom> cache;
+
+    public RoomCache(
+            @Value("${clients.rooms.cache.max-size:1000}") long maxSize,
+            @Value("${clients.rooms.cache.ttl:30s}") Duration ttl,
+            @Value("${clients.rooms.cache.not-found-ttl:5s}") Duration notFoundTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CachedRoomExpiry(ttl, notFoundTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rooms");
+    }
+
+    /**
+     * Return a copy of the cached room, so callers can enrich it (e.g. with the owner) without
+     * changing the cached value. A cached 404 is thrown again to keep the fallback behavior.
+     */
+    public RoomDTO get(String id, Function<String, RoomDTO> loader) {
+        CachedRoom cached = cache.getIfPresent(id);
+
+        if (cached == null) {
+            try {
+                RoomDTO room = loader.apply(id);
+                if (room == null) {
+                    return null;
+                }
+                cached = new CachedRoom(room, null);
+            } catch (FeignException.NotFound e) {
+                cached = new CachedRoom(null, e);
+            }
+            cache.put(id, cached);
+        }
+
+        if (cached.notFound() != null) {
+            throw cached.notFound();
+        }
+
+        return cached.room().toBuilder().build();
+    }
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    private record CachedRoom(RoomDTO room, FeignException.NotFound notFound) {
+    }
+
+    private record CachedRoomExpiry(Duration ttl, Duration notFoundTtl) implements Expiry<String, CachedRoom> {
+
+        @Override
+        public long expireAfterCreate(String id, CachedRoom cached, long currentTime) {
+            return cached.notFound() == null ? ttl.toNanos() : notFoundTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, CachedRoom cached, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, CachedRoom cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.springcloud.demo.asksmicroservice.client.rooms;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.client.SingleFlight;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
 import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
 import com.springcloud.demo.asksmicroservice.exceptions.InheritedException;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
@@ -16,11 +17,14 @@ import java.util.Map;
 public class RoomClientImpl implements RoomClient {
 
     private final RoomClient roomClient;
+    private final RoomCache roomCache;
+    private final SingleFlight<String, RoomDTO> roomsInFlight;
+    private final JsonCodec jsonCodec;
 
     @Override
     @CircuitBreaker(name = "rooms-service", fallbackMethod = "findRoomByIdFallback")
     public RoomDTO findById(String id) {
-        return roomClient.findById(id);
+        return roomCache.get(id, roomId -> roomsInFlight.execute(roomId, () -> roomClient.findById(roomId)));
     }
 
     RoomDTO findRoomByIdFallback(String id, Throwable e) throws Exception {
@@ -28,7 +32,9 @@ public class RoomClientImpl implements RoomClient {
             throw new ForbiddenException("Rooms service not available. Try later");
         }
 
-        Map body = new ObjectMapper().readValue(feignClientException.contentUTF8(), Map.class);
+        Map<?, ?> body = feignClientException.responseBody()
+                .map(json -> jsonCodec.fromJson(json, Map.class))
+                .orElse(Map.of());
 
         throw new InheritedException(
                 feignClientException.status(),
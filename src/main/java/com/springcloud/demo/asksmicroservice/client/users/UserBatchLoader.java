@@ -0,0 +1,187 @@
+package com.springcloud.demo.asksmicroservice.client.users;
+
+import com.springcloud.demo.asksmicroservice.client.RemoteCallExecutor;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collect single user lookups made within {@code window} (or until {@code max-batch-size} ids)
+ * and resolve them with one multi-id request to users-ms. A lookup of an id already waiting for
+ * a batch, or already sent in one that has not completed, gets that batch's result.
+ */
+@Component
+public class UserBatchLoader implements MeterBinder {
+
+    private final UserClientImpl userClient;
+    private final RemoteCallExecutor remoteCallExecutor;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("user-batch-loader").daemon().factory()
+    );
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<UserDTO>> pending = new LinkedHashMap<>();
+    // Ids of the batches sent to users-ms and not completed yet
+    private final Map<String, CompletableFuture<UserDTO>> inFlight = new HashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public UserBatchLoader(
+            UserClientImpl userClient,
+            RemoteCallExecutor remoteCallExecutor,
+            @Value("${clients.users.batch.window:5ms}") Duration window,
+            @Value("${clients.users.batch.max-size:100}") int maxBatchSize
+    ) {
+        this.userClient = userClient;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public CompletableFuture<UserDTO> load(String id) {
+        Map<String, CompletableFuture<UserDTO>> fullBatch = null;
+        CompletableFuture<UserDTO> user;
+
+        lock.lock();
+        try {
+            user = pending.get(id);
+            if (user == null) {
+                user = inFlight.get(id);
+            }
+            if (user != null) {
+                coalesced.increment();
+                return user;
+            }
+
+            user = new CompletableFuture<>();
+            pending.put(id, user);
+
+            if (pending.size() == 1) {
+                scheduler.schedule(this::dispatchPending, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+
+        return user;
+    }
+
+    /**
+     * Resolve several users at once, e.g. the authors of a page of asks.
+     */
+    public Map<String, UserDTO> loadAll(Collection<String> ids) {
+        Map<String, CompletableFuture<UserDTO>> users = ids.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), this::load, (a, b) -> a, LinkedHashMap::new));
+
+        Map<String, UserDTO> result = new LinkedHashMap<>();
+        users.forEach((id, user) -> result.put(id, RemoteCallExecutor.await(user)));
+
+        return result;
+    }
+
+    private void dispatchPending() {
+        Map<String, CompletableFuture<UserDTO>> batch;
+
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<String, CompletableFuture<UserDTO>> takePending() {
+        Map<String, CompletableFuture<UserDTO>> batch = pending;
+        pending = new LinkedHashMap<>();
+        inFlight.putAll(batch);
+        return batch;
+    }
+
+    private void completed(Map<String, CompletableFuture<UserDTO>> batch) {
+        lock.lock();
+        try {
+            batch.forEach(inFlight::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(Map<String, CompletableFuture<UserDTO>> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+
+        remoteCallExecutor.supply(() -> userClient.findAllByIds(ids)).whenComplete((users, e) -> {
+            // Lookups of these ids made from now on go to users-ms again
+            completed(batch);
+            complete(batch, users, e);
+        });
+    }
+
+    private static void complete(Map<String, CompletableFuture<UserDTO>> batch, List<UserDTO> users, Throwable e) {
+        if (e != null) {
+            batch.values().forEach(user -> user.completeExceptionally(e));
+            return;
+        }
+
+        Map<String, UserDTO> usersById = users.stream()
+                .collect(Collectors.toMap(user -> user.getId().toString(), Function.identity(), (a, b) -> a));
+
+        batch.forEach((id, user) -> {
+            UserDTO found = usersById.get(id);
+            if (found == null) {
+                user.completeExceptionally(new NotFoundException("Not found user with id: " + id));
+            } else {
+                user.complete(found);
+            }
+        });
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("clients.calls.coalesced", this, UserBatchLoader::coalescedCount)
+                .description("Calls served by an identical call already in flight")
+                .tag("client", "users-ms")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -4,10 +4,16 @@ import com.springcloud.demo.asksmicroservice.client.config.FeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(name = "users-ms", configuration = FeignConfig.class)
 public interface UserClient {
 
     @GetMapping("/api/users/{id}")
     UserDTO findById(@PathVariable String id);
+
+    @GetMapping("/api/users")
+    List<UserDTO> findAllByIds(@RequestParam("ids") List<String> ids);
 }
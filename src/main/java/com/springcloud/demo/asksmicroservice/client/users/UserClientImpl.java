@@ -1,13 +1,14 @@
 package com.springcloud.demo.asksmicroservice.client.users;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
 import com.springcloud.demo.asksmicroservice.exceptions.InheritedException;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -15,6 +16,7 @@ import java.util.Map;
 public class UserClientImpl implements UserClient {
 
     private final UserClient userClient;
+    private final JsonCodec jsonCodec;
 
     @Override
     @CircuitBreaker(name = "users-service", fallbackMethod = "findUserByIdFallback")
@@ -22,14 +24,30 @@ public class UserClientImpl implements UserClient {
         return userClient.findById(id);
     }
 
+    @Override
+    @CircuitBreaker(name = "users-service", fallbackMethod = "findAllUsersByIdsFallback")
+    public List<UserDTO> findAllByIds(List<String> ids) {
+        return userClient.findAllByIds(ids);
+    }
+
     public UserDTO findUserByIdFallback(String id, Throwable e) throws Exception {
+        throw mapFallbackException(e);
+    }
+
+    public List<UserDTO> findAllUsersByIdsFallback(List<String> ids, Throwable e) throws Exception {
+        throw mapFallbackException(e);
+    }
+
+    private RuntimeException mapFallbackException(Throwable e) throws Exception {
         if(!(e instanceof FeignException.FeignClientException feignClientException)){
-            throw new ForbiddenException("Users service not available. Try later");
+            return new ForbiddenException("Users service not available. Try later");
         }
 
-        Map body = new ObjectMapper().readValue(feignClientException.contentUTF8(), Map.class);
+        Map<?, ?> body = feignClientException.responseBody()
+                .map(json -> jsonCodec.fromJson(json, Map.class))
+                .orElse(Map.of());
 
-        throw new InheritedException(
+        return new InheritedException(
                 feignClientException.status(),
                 (String) body.get("message")
         );
@@ -0,0 +1,15 @@
+package com.springcloud.demo.asksmicroservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the outbox relay and the room stats flush and reconciliation. Tests turn it off with
+ * {@code asks.scheduling.enabled} and call the jobs themselves.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "asks.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,7 @@
+package com.springcloud.demo.asksmicroservice.exceptions;
+
+public class ConflictException extends RuntimeException{
+    public ConflictException(String message) {
+        super(message);
+    }
+}
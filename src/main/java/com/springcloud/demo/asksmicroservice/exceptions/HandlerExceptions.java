@@ -61,6 +61,18 @@ public class HandlerExceptions {
                 .build();
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponseDTO handleConflictExceptions(ConflictException e){
+        tracingExceptions.addExceptionMetadata(e.getMessage());
+
+        return ErrorResponseDTO
+                .builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(e.getMessage())
+                .build();
+    }
+
     @ExceptionHandler({BadRequestException.class, MissingServletRequestParameterException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponseDTO handleBadRequestException(Exception e){
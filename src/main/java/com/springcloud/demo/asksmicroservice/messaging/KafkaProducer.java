@@ -1,17 +1,92 @@
 package com.springcloud.demo.asksmicroservice.messaging;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka producer with a bounded number of sends waiting for acknowledgement. When the limit is
+ * reached the {@code BLOCK} policy waits up to {@code block-timeout} for a free slot and the
+ * {@code SHED} policy fails the send right away.
+ */
 @Service
-@RequiredArgsConstructor
 public class KafkaProducer implements MessagingProducer{
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    public enum OverflowPolicy {
+        BLOCK,
+        SHED
+    }
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final Semaphore inFlight;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Timer acknowledged;
+    private final Timer failed;
+    private final Counter shed;
+
+    public KafkaProducer(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${messaging.producer.max-in-flight:1000}") int maxInFlight,
+            @Value("${messaging.producer.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${messaging.producer.block-timeout:5s}") Duration blockTimeout
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+        this.acknowledged = Timer.builder("messaging.send.ack").tag("result", "success").register(meterRegistry);
+        this.failed = Timer.builder("messaging.send.ack").tag("result", "failure").register(meterRegistry);
+        this.shed = Counter.builder("messaging.send.shed").register(meterRegistry);
+    }
 
     @Override
-    public void sendMessage(String topic, String message) {
-        kafkaTemplate.send(topic, message);
+    public CompletableFuture<Void> sendMessage(String topic, String key, byte[] payload, Map<String, String> headers) {
+        if (!acquireSlot()) {
+            shed.increment();
+            return CompletableFuture.failedFuture(new MessagingOverloadedException("Too many messages waiting for acknowledgement"));
+        }
+
+        long start = System.nanoTime();
+        try {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+            headers.forEach((name, value) -> record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+
+            return kafkaTemplate.send(record)
+                    .whenComplete((result, e) -> {
+                        inFlight.release();
+                        (e == null ? acknowledged : failed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    })
+                    .thenApply(result -> null);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean acquireSlot() {
+        if (overflowPolicy == OverflowPolicy.SHED) {
+            return inFlight.tryAcquire();
+        }
+
+        try {
+            return inFlight.tryAcquire(blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.springcloud.demo.asksmicroservice.messaging;
+
+public class MessagingOverloadedException extends RuntimeException {
+    public MessagingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,12 @@
 package com.springcloud.demo.asksmicroservice.messaging;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public interface MessagingProducer {
-    void sendMessage(String topic, String message);
+    /**
+     * Send a message asynchronously. The returned future completes when the broker acknowledges it.
+     * Messages with the same key keep their order.
+     */
+    CompletableFuture<Void> sendMessage(String topic, String key, byte[] payload, Map<String, String> headers);
 }
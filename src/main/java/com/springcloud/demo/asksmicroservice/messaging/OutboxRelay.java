@@ -0,0 +1,184 @@
+package com.springcloud.demo.asksmicroservice.messaging;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.springcloud.demo.asksmicroservice.messaging.model.OutboxEvent;
+import com.springcloud.demo.asksmicroservice.messaging.model.RelayLock;
+import com.springcloud.demo.asksmicroservice.messaging.repository.OutboxEventRepository;
+import com.springcloud.demo.asksmicroservice.messaging.repository.RelayLockRepository;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publish the events written to the outbox together with the asks, in batches and in creation order.
+ * Only one instance relays at a time: it claims the relay lock as a lease and reads a batch in one
+ * short transaction, sends it with no transaction open, and deletes the acknowledged rows in bulk.
+ * The lease is renewed with every batch and is taken over by another instance once it expires.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    static final String LOCK_NAME = "ask-outbox";
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {};
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final OutboxEventRepository outboxEventRepository;
+    private final RelayLockRepository relayLockRepository;
+    private final MessagingProducer messagingProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonCodec jsonCodec;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration lease;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            RelayLockRepository relayLockRepository,
+            MessagingProducer messagingProducer,
+            TransactionTemplate transactionTemplate,
+            JsonCodec jsonCodec,
+            @Value("${messaging.outbox.batch-size:100}") int batchSize,
+            @Value("${messaging.outbox.send-timeout:10s}") Duration sendTimeout,
+            @Value("${messaging.outbox.lease:30s}") Duration lease
+    ) {
+        // A batch is sent and awaited within send-timeout, no other instance may take over meanwhile
+        if (lease.compareTo(sendTimeout) <= 0) {
+            throw new IllegalArgumentException("messaging.outbox.lease must be longer than messaging.outbox.send-timeout");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.relayLockRepository = relayLockRepository;
+        this.messagingProducer = messagingProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonCodec = jsonCodec;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${messaging.outbox.relay-delay-ms:500}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (PessimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.debug("Outbox is being relayed by another instance");
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimBatch());
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        // Only acknowledged events are deleted, in their own transaction, the rest are sent again on the next relay
+        List<String> sentIds = send(events);
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        }
+
+        return sentIds.size() == events.size() ? events.size() : 0;
+    }
+
+    /**
+     * Next batch to relay, empty while the lease is held by another instance.
+     */
+    private List<OutboxEvent> claimBatch() {
+        RelayLock lock = relayLockRepository.lockByName(LOCK_NAME)
+                .orElseGet(() -> relayLockRepository.saveAndFlush(RelayLock.builder().name(LOCK_NAME).build()));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (isLeasedByAnother(lock, now)) {
+            log.debug("Outbox is being relayed by {}", lock.getLockedBy());
+            return List.of();
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findByOrderByCreatedAtAsc(Limit.of(batchSize));
+        if (!events.isEmpty()) {
+            lock.setLockedBy(instanceId);
+            lock.setLockedAt(now);
+        }
+        return events;
+    }
+
+    private boolean isLeasedByAnother(RelayLock lock, LocalDateTime now) {
+        return lock.getLockedBy() != null
+                && !lock.getLockedBy().equals(instanceId)
+                && lock.getLockedAt() != null
+                && lock.getLockedAt().isAfter(now.minus(lease));
+    }
+
+    /**
+     * Send the events and wait for their acknowledgements, all within one send-timeout. The events of a
+     * key are sent one after the other, each once the previous one is acknowledged, while different keys
+     * are sent together. The first failure of a key stops it: its remaining events stay in the outbox,
+     * so a failed event is never overtaken by the next events of its room.
+     */
+    private List<String> send(List<OutboxEvent> events) {
+        Map<String, Deque<OutboxEvent>> pendingByKey = new LinkedHashMap<>();
+        events.forEach(event -> pendingByKey.computeIfAbsent(event.getMessageKey(), key -> new ArrayDeque<>()).add(event));
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<String> sentIds = new ArrayList<>();
+        while (!pendingByKey.isEmpty()) {
+            Map<String, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+            pendingByKey.forEach((key, pending) -> {
+                OutboxEvent event = pending.peek();
+                sends.put(key, messagingProducer.sendMessage(event.getTopic(), key, event.getPayload(), headersOf(event)));
+            });
+
+            sends.forEach((key, send) -> {
+                Deque<OutboxEvent> pending = pendingByKey.get(key);
+                if (!isAcknowledged(send, deadline)) {
+                    pendingByKey.remove(key);
+                    return;
+                }
+                sentIds.add(pending.poll().getId());
+                if (pending.isEmpty()) {
+                    pendingByKey.remove(key);
+                }
+            });
+        }
+        return sentIds;
+    }
+
+    private Map<String, String> headersOf(OutboxEvent event) {
+        return event.getHeaders() == null ? Map.of() : jsonCodec.fromJson(event.getHeaders(), HEADERS_TYPE);
+    }
+
+    private boolean isAcknowledged(CompletableFuture<Void> send, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox event not acknowledged: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.springcloud.demo.asksmicroservice.messaging.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    String id;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    LocalDateTime createdAt;
+
+    String topic;
+
+    @Column(name = "message_key")
+    String messageKey;
+
+    @Column(length = 65535)
+    byte[] payload;
+
+    /**
+     * Message headers as a JSON object, e.g. the payload content type.
+     */
+    @Column(length = 1024)
+    String headers;
+}
@@ -0,0 +1,29 @@
+package com.springcloud.demo.asksmicroservice.messaging.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row locked by the instance relaying the outbox, so only one instance relays at a time.
+ * The outbox relay holds it as a lease: {@code lockedBy} relays until {@code lockedAt} is older than the lease.
+ */
+@Entity
+@Table(name = "relay_locks")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RelayLock {
+
+    @Id
+    String name;
+
+    @Column(name = "locked_at")
+    LocalDateTime lockedAt;
+
+    @Column(name = "locked_by")
+    String lockedBy;
+}
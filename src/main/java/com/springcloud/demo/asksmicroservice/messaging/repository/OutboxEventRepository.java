@@ -0,0 +1,12 @@
+package com.springcloud.demo.asksmicroservice.messaging.repository;
+
+import com.springcloud.demo.asksmicroservice.messaging.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    List<OutboxEvent> findByOrderByCreatedAtAsc(Limit limit);
+}
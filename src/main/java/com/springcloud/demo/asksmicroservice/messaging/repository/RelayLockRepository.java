@@ -0,0 +1,22 @@
+package com.springcloud.demo.asksmicroservice.messaging.repository;
+
+import com.springcloud.demo.asksmicroservice.messaging.model.RelayLock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface RelayLockRepository extends JpaRepository<RelayLock, String> {
+
+    /**
+     * Lock the row without waiting: fails right away when another instance holds it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT l FROM RelayLock l WHERE l.name = :name")
+    Optional<RelayLock> lockByName(String name);
+}
@@ -0,0 +1,80 @@
+package com.springcloud.demo.asksmicroservice.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time each connection is held, from getConnection until it is closed back to the pool, tagged
+ * with the endpoint of the request that took it ({@code none} outside requests, e.g. schedulers).
+ * The pool only tells how busy it is, this tells which endpoint keeps it busy.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    static final String METRIC = "asks.db.connection.hold";
+    static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionHoldTimeDataSource(DataSource dataSource, MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        Timer timer = Timer.builder(METRIC).tag("endpoint", currentEndpoint()).register(meterRegistry);
+        long start = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                }
+        );
+    }
+
+    private static String currentEndpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return NO_ENDPOINT;
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NO_ENDPOINT : request.getMethod() + " " + pattern;
+    }
+}
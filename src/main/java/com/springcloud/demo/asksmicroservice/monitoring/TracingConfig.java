@@ -2,6 +2,7 @@ package com.springcloud.demo.asksmicroservice.monitoring;
 
 import com.amazonaws.xray.jakarta.servlet.AWSXRayServletFilter;
 import com.amazonaws.xray.sql.TracingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -23,8 +24,11 @@ public class TracingConfig {
 
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
-        return TracingDataSource.decorate(dataSourceProperties.initializeDataSourceBuilder().build());
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        return new ConnectionHoldTimeDataSource(
+                TracingDataSource.decorate(dataSourceProperties.initializeDataSourceBuilder().build()),
+                meterRegistry
+        );
     }
 
     @Bean
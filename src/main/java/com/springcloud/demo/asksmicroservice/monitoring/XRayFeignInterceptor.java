@@ -9,6 +9,10 @@ public class XRayFeignInterceptor implements RequestInterceptor {
     @Override
     public void apply(RequestTemplate requestTemplate) {
         Segment segment = AWSXRay.getCurrentSegment();
+        if (segment == null) {
+            return;
+        }
+
         String traceId = segment.getTraceId().toString();
         String parentId = segment.getId();
 
@@ -0,0 +1,24 @@
+package com.springcloud.demo.asksmicroservice.rooms;
+
+import com.springcloud.demo.asksmicroservice.rooms.dto.RoomEventDTO;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feed the room events of rooms-ms to RoomOwnership. Every instance is in the same consumer group,
+ * the projection is shared in the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomEventsConsumer {
+
+    private final RoomOwnership roomOwnership;
+    private final JsonCodec jsonCodec;
+
+    @KafkaListener(topics = "${spring.kafka.topics.ROOM_EVENTS_TOPIC}")
+    public void onRoomEvent(byte[] payload) {
+        roomOwnership.apply(jsonCodec.fromJson(payload, RoomEventDTO.class));
+    }
+}
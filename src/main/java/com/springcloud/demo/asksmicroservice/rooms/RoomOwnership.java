@@ -0,0 +1,85 @@
+package com.springcloud.demo.asksmicroservice.rooms;
+
+import com.springcloud.demo.asksmicroservice.client.rooms.RoomCache;
+import com.springcloud.demo.asksmicroservice.client.rooms.RoomClientImpl;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import com.springcloud.demo.asksmicroservice.rooms.dto.RoomEventDTO;
+import com.springcloud.demo.asksmicroservice.rooms.model.RoomOwner;
+import com.springcloud.demo.asksmicroservice.rooms.repository.RoomOwnerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owner of each room, projected into room_owners from the room events. Owner checks read the
+ * projection, so answering or deleting asks needs no call to rooms-ms and keeps working while it
+ * is down. A room not seen in the events yet (e.g. created before the projection existed) is
+ * loaded once from rooms-ms and added to the projection. Deleted rooms are kept as tombstones,
+ * so a load racing with the deletion cannot add the owner back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomOwnership {
+
+    private final RoomOwnerRepository roomOwnerRepository;
+    private final RoomClientImpl roomClient;
+    private final RoomCache roomCache;
+
+    public String ownerOf(String roomId) {
+        return roomOwnerRepository.findById(roomId)
+                .map(RoomOwnership::ownerIfNotDeleted)
+                .orElseGet(() -> load(roomId));
+    }
+
+    public void apply(RoomEventDTO event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> roomOwnerRepository.save(RoomOwner
+                    .builder()
+                    .roomId(event.getRoomId())
+                    .ownerId(event.getOwnerId())
+                    .build());
+            case DELETED -> markDeleted(event);
+        }
+
+        // Rooms read for other purposes must not be older than the projection
+        roomCache.evict(event.getRoomId());
+    }
+
+    private void markDeleted(RoomEventDTO event) {
+        if (roomOwnerRepository.markDeleted(event.getRoomId()) > 0) {
+            return;
+        }
+
+        try {
+            roomOwnerRepository.insertDeleted(event.getRoomId(), event.getOwnerId());
+        } catch (DataIntegrityViolationException e) {
+            // Loaded from rooms-ms in the meantime
+            roomOwnerRepository.markDeleted(event.getRoomId());
+        }
+    }
+
+    private String load(String roomId) {
+        String ownerId = roomClient.findById(roomId).getOwnerId();
+
+        try {
+            roomOwnerRepository.insert(roomId, ownerId);
+        } catch (DataIntegrityViolationException e) {
+            // Added by a room event in the meantime, it wins over what was loaded
+            log.debug("Owner of room {} already projected", roomId);
+            return roomOwnerRepository.findById(roomId)
+                    .map(RoomOwnership::ownerIfNotDeleted)
+                    .orElse(ownerId);
+        }
+
+        return ownerId;
+    }
+
+    private static String ownerIfNotDeleted(RoomOwner owner) {
+        if (owner.isDeleted()) {
+            throw new NotFoundException("Not found room with id: " + owner.getRoomId());
+        }
+        return owner.getOwnerId();
+    }
+}
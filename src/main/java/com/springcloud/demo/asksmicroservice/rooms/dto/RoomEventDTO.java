@@ -0,0 +1,26 @@
+package com.springcloud.demo.asksmicroservice.rooms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Room lifecycle event published by rooms-ms, keyed by room id.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomEventDTO {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private Type type;
+    private String roomId;
+    private String ownerId;
+}
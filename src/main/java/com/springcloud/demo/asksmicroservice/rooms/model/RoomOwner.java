@@ -0,0 +1,27 @@
+package com.springcloud.demo.asksmicroservice.rooms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Owner of a room as last seen in the room events, maintained by RoomOwnership.
+ * Deleted rooms stay as tombstones with {@code deleted} set.
+ */
+@Entity
+@Table(name = "room_owners")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomOwner {
+
+    @Id
+    @Column(name = "room_id")
+    String roomId;
+
+    @Column(name = "owner_id")
+    String ownerId;
+
+    boolean deleted;
+}
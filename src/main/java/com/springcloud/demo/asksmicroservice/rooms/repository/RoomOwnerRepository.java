@@ -0,0 +1,34 @@
+package com.springcloud.demo.asksmicroservice.rooms.repository;
+
+import com.springcloud.demo.asksmicroservice.rooms.model.RoomOwner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface RoomOwnerRepository extends JpaRepository<RoomOwner, String> {
+
+    /**
+     * Plain insert, unlike save it never overwrites an owner or a tombstone written by a room event in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_owners (room_id, owner_id, deleted) VALUES (:roomId, :ownerId, FALSE)", nativeQuery = true)
+    void insert(String roomId, String ownerId);
+
+    /**
+     * Tombstone of a room not projected yet, the owner may be unknown.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_owners (room_id, owner_id, deleted) VALUES (:roomId, :ownerId, TRUE)", nativeQuery = true)
+    void insertDeleted(String roomId, String ownerId);
+
+    /**
+     * Turn the room into a tombstone keeping its owner, delete events do not always carry it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RoomOwner o SET o.deleted = true WHERE o.roomId = :roomId")
+    int markDeleted(String roomId);
+}
@@ -0,0 +1,104 @@
+package com.springcloud.demo.asksmicroservice.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON serialization on top of the ObjectMapper configured by Spring. Writers and readers are
+ * built once per type and reused, and values can be written straight to bytes or a stream
+ * without an intermediate String.
+ */
+@Component
+public class JsonCodec {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public byte[] toBytes(Object value) {
+        try {
+            return writerFor(value).writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String toJson(Object value) {
+        try {
+            return writerFor(value).writeValueAsString(value);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the value to the stream, which is left open.
+     */
+    public void write(OutputStream out, Object value) {
+        try {
+            writerFor(value).writeValue(out, value);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public <T> T fromJson(byte[] json, Class<T> type) {
+        try {
+            return readerFor(type).readValue(json);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the remaining bytes of the buffer, its position is left unchanged.
+     */
+    public <T> T fromJson(ByteBuffer json, Class<T> type) {
+        try {
+            return readerFor(type).readValue(new ByteBufferBackedInputStream(json.duplicate()));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public <T> T fromJson(String json, Class<T> type) {
+        try {
+            return readerFor(type).readValue(json);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return readerFor(type.getType()).readValue(json);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ObjectWriter writerFor(Object value) {
+        return writers.computeIfAbsent(value == null ? Object.class : value.getClass(), type ->
+                objectMapper.writerFor(type).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        );
+    }
+
+    private ObjectReader readerFor(Type type) {
+        return readers.computeIfAbsent(type, key -> objectMapper.readerFor(objectMapper.constructType(key)));
+    }
+}
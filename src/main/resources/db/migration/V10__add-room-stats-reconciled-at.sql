@@ -0,0 +1,2 @@
+-- Snapshot time of the last reconciliation, changes observed before it are already counted
+ALTER TABLE room_stats ADD COLUMN reconciled_at DATETIME(6) NULL;
@@ -0,0 +1,2 @@
+-- Deleted rooms are kept as tombstones, so loading a room from rooms-ms cannot bring back a deleted one
+ALTER TABLE room_owners ADD COLUMN deleted BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,3 @@
+-- Reconciliations are ordered with the ask writes by a per room epoch instead of a snapshot time
+ALTER TABLE room_stats DROP COLUMN reconciled_at;
+ALTER TABLE room_stats ADD COLUMN epoch BIGINT NOT NULL DEFAULT 0;
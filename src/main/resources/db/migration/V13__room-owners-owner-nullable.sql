@@ -0,0 +1,2 @@
+-- A room deleted before any of its events was projected leaves a tombstone without owner
+ALTER TABLE room_owners MODIFY owner_id CHAR(36) NULL;
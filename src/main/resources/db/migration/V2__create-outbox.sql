@@ -0,0 +1,16 @@
+CREATE TABLE outbox_events (
+    id CHAR(36) DEFAULT (UUID()),
+    created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6),
+    topic VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    PRIMARY KEY(id),
+    INDEX idx_outbox_events_created_at (created_at)
+);
+
+CREATE TABLE relay_locks (
+    name VARCHAR(64) NOT NULL,
+    locked_at TIMESTAMP NULL,
+    PRIMARY KEY(name)
+);
+
+INSERT INTO relay_locks (name) VALUES ('ask-outbox');
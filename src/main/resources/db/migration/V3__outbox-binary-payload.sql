@@ -0,0 +1,4 @@
+ALTER TABLE outbox_events
+    ADD COLUMN message_key VARCHAR(255) NULL AFTER topic,
+    ADD COLUMN headers VARCHAR(1024) NULL,
+    MODIFY COLUMN payload MEDIUMBLOB NOT NULL;
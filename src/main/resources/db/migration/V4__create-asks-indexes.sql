@@ -0,0 +1,11 @@
+-- InnoDB appends the primary key to secondary indexes, so (created_at, id) is the order
+-- used by the keyset pagination without listing id explicitly.
+
+-- Asks of a room, newest first
+CREATE INDEX idx_asks_room_created_at ON asks (room_id, created_at);
+
+-- Asks of a user, newest first
+CREATE INDEX idx_asks_user_created_at ON asks (user_id, created_at);
+
+-- Unanswered asks of a room (answer IS NULL), a one character prefix is enough to tell them apart
+CREATE INDEX idx_asks_room_answer_created_at ON asks (room_id, answer(1), created_at);
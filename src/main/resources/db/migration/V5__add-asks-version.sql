@@ -0,0 +1 @@
+ALTER TABLE asks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
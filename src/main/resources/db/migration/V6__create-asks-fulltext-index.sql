@@ -0,0 +1,2 @@
+-- Search over questions and answers, queried with MATCH (question, answer) AGAINST (...)
+CREATE FULLTEXT INDEX ft_asks_question_answer ON asks (question, answer);
@@ -0,0 +1,11 @@
+-- Per room counters kept up to date by RoomStatsService, unanswered is total - answered
+CREATE TABLE room_stats (
+    room_id CHAR(36) NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    -- sum of the seconds between creation and answer of the answered asks
+    answer_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY(room_id)
+);
+
+INSERT INTO relay_locks (name) VALUES ('room-stats');
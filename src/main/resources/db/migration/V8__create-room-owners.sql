@@ -0,0 +1,6 @@
+-- Owner of each room, projected from the room events so owner checks do not call rooms-ms
+CREATE TABLE room_owners (
+    room_id CHAR(36) NOT NULL,
+    owner_id CHAR(36) NOT NULL,
+    PRIMARY KEY(room_id)
+);
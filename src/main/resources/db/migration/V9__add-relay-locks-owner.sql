@@ -0,0 +1,2 @@
+-- Instance holding the relay lease, the row is no longer locked while events are sent
+ALTER TABLE relay_locks ADD COLUMN locked_by CHAR(36) NULL;
@@ -2,10 +2,16 @@ package com.springcloud.demo.asksmicroservice.asks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskItemDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.DeleteAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
 import com.springcloud.demo.asksmicroservice.asks.repository.AskRepository;
+import com.springcloud.demo.asksmicroservice.asks.service.AskListingCache;
+import com.springcloud.demo.asksmicroservice.asks.service.RoomStatsService;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
@@ -13,7 +19,15 @@ import static org.mockito.BDDMockito.*;
 import com.springcloud.demo.asksmicroservice.client.rooms.RoomClientImpl;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
 import com.springcloud.demo.asksmicroservice.client.users.UserClientImpl;
+import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
 import com.springcloud.demo.asksmicroservice.messaging.MessagingProducer;
+import com.springcloud.demo.asksmicroservice.rooms.RoomOwnership;
+import com.springcloud.demo.asksmicroservice.rooms.dto.RoomEventDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.hamcrest.Matchers;
 import org.hibernate.AssertionFailure;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +37,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -34,6 +50,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -55,14 +72,31 @@ public class AskTestIT {
     @MockBean
     private MessagingProducer messagingProducer;
 
+    @Autowired
+    private AskListingCache askListingCache;
+
+    @Autowired
+    private RoomStatsService roomStatsService;
+
+    @Autowired
+    private RoomOwnership roomOwnership;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     List<Ask> asks;
 
     @BeforeEach
     void setup() {
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willReturn(CompletableFuture.completedFuture(null));
+        // Stub users-ms: returns every requested user
+        given(userClient.findAllByIds(anyList())).willAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                .stream()
+                .map(id -> UserDTO.builder().id(UUID.fromString(id)).build())
+                .toList());
         askRepository.deleteAll();
         Ask ask1 = Ask
                 .builder()
-                .id(UUID.randomUUID().toString())
                 .roomId(UUID.randomUUID().toString())
                 .userId(UUID.randomUUID().toString())
                 .question("First question")
@@ -71,7 +105,6 @@ public class AskTestIT {
 
         Ask ask2 = Ask
                 .builder()
-                .id(UUID.randomUUID().toString())
                 .roomId(UUID.randomUUID().toString())
                 .userId(UUID.randomUUID().toString())
                 .question("Second question")
@@ -81,6 +114,7 @@ public class AskTestIT {
                 .build();
 
         asks = askRepository.saveAll(List.of(ask1, ask2));
+        askListingCache.invalidateAll();
     }
 
     @Nested
@@ -98,7 +132,7 @@ public class AskTestIT {
             createAskDTO.setQuestion("First question");
             createAskDTO.setRoomId(UUID.randomUUID().toString());
 
-            given(roomClient.findById(anyString())).willReturn(new RoomDTO());
+            given(roomClient.findById(anyString())).willReturn(RoomDTO.builder().ownerId(UUID.randomUUID().toString()).build());
 
             MvcResult result = mockMvc.perform(
                             MockMvcRequestBuilders
@@ -121,6 +155,35 @@ public class AskTestIT {
             assertThat(askCreated.getQuestion()).isEqualTo(createAskDTO.getQuestion());
         }
 
+        @Test
+        void ownerLoggedCostsOneUsersRequest() throws Exception {
+            String ownerId = UUID.randomUUID().toString();
+            createAskDTO.setQuestion("Question of the owner");
+            createAskDTO.setRoomId(UUID.randomUUID().toString());
+
+            // The owner is looked up once the room is found, after the batch of the user logged is sent
+            given(roomClient.findById(anyString())).willAnswer(invocation -> {
+                Thread.sleep(50);
+                return RoomDTO.builder().ownerId(ownerId).build();
+            });
+            given(userClient.findAllByIds(anyList())).willAnswer(invocation -> {
+                Thread.sleep(200);
+                List<String> ids = invocation.getArgument(0);
+                return ids.stream().map(id -> UserDTO.builder().id(UUID.fromString(id)).build()).toList();
+            });
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(createAskDTO))
+                                    .header("X-UserId", ownerId)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.CREATED.value()));
+
+            verify(userClient, times(1)).findAllByIds(List.of(ownerId));
+        }
+
         @Test
         void errorWhenMissingFields() throws Exception {
             mockMvc.perform(
@@ -138,6 +201,54 @@ public class AskTestIT {
         }
     }
 
+    @Nested
+    class CreateBatch {
+
+        @Test
+        void createBatch() throws Exception {
+            CreateAskBatchDTO batch = CreateAskBatchDTO.builder()
+                    .roomId(UUID.randomUUID().toString())
+                    .questions(List.of("First batch question", "short", "Third batch question"))
+                    .build();
+
+            given(roomClient.findById(anyString())).willReturn(RoomDTO.builder().ownerId(UUID.randomUUID().toString()).build());
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(batch))
+                                    .header("X-UserId", UUID.randomUUID().toString())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(2))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].ask.question").value("First batch question"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error").exists())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[2].ask.roomId").value(batch.getRoomId()));
+
+            verify(roomClient, times(1)).findById(batch.getRoomId());
+            assertThat(askRepository.findAll()).filteredOn(ask -> ask.getRoomId().equals(batch.getRoomId())).hasSize(2);
+        }
+
+        @Test
+        void errorWhenQuestionsAreMissing() throws Exception {
+            CreateAskBatchDTO batch = CreateAskBatchDTO.builder()
+                    .roomId(UUID.randomUUID().toString())
+                    .questions(List.of())
+                    .build();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(batch))
+                                    .header("X-UserId", UUID.randomUUID().toString())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
     @Nested
     class FindAll {
 
@@ -174,6 +285,29 @@ public class AskTestIT {
                     .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(asks.get(1).getId()));
         }
 
+        @Test
+        void findAllUnansweredOfRoom() throws Exception {
+            Ask answered = askRepository.save(Ask
+                    .builder()
+                    .roomId(asks.getFirst().getRoomId())
+                    .userId(UUID.randomUUID().toString())
+                    .question("Answered question")
+                    .answer("Answer")
+                    .createdAt(LocalDateTime.now())
+                    .respondedAt(LocalDateTime.now())
+                    .build());
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("roomId", answered.getRoomId())
+                                    .queryParam("answered", "false")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(asks.getFirst().getId()));
+        }
+
         @Test
         void findAllWithPagination() throws Exception {
             mockMvc.perform(
@@ -186,6 +320,214 @@ public class AskTestIT {
                     .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
                     .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(asks.get(1).getId()));
         }
+
+        @Test
+        void notModifiedWhenListingETagMatches() throws Exception {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks"))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andReturn();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .header("If-None-Match", result.getResponse().getHeader("ETag"))
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.NOT_MODIFIED.value()));
+        }
+
+        @Test
+        void findAllWithCursor() throws Exception {
+            MvcResult firstPage = mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("cursor", "")
+                                    .queryParam("limit", "1")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                    .andExpect(MockMvcResultMatchers.header().exists("X-Next-Cursor"))
+                    .andReturn();
+            String firstId = JsonPath.read(firstPage.getResponse().getContentAsString(), "$[0].id");
+
+            MvcResult secondPage = mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("cursor", firstPage.getResponse().getHeader("X-Next-Cursor"))
+                                    .queryParam("limit", "1")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"))
+                    .andReturn();
+            String secondId = JsonPath.read(secondPage.getResponse().getContentAsString(), "$[0].id");
+
+            assertThat(List.of(firstId, secondId)).containsExactlyInAnyOrder(asks.get(0).getId(), asks.get(1).getId());
+        }
+
+        @Test
+        void searchRankedByRelevance() throws Exception {
+            Ask answerMatch = askRepository.save(Ask
+                    .builder()
+                    .roomId(UUID.randomUUID().toString())
+                    .userId(UUID.randomUUID().toString())
+                    .question("Another question")
+                    .answer("It is about the Second question")
+                    .createdAt(LocalDateTime.now().plusMinutes(1))
+                    .respondedAt(LocalDateTime.now())
+                    .build());
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("search", "second question")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(2))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(asks.get(1).getId()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(answerMatch.getId()));
+        }
+
+        @Test
+        void errorWhenSearchingWithCursor() throws Exception {
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("search", "question")
+                                    .queryParam("cursor", "")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+        }
+
+        @Test
+        void errorWhenCursorIsNotValid() throws Exception {
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("cursor", "abcde")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void exportByRoomAsNdjson() throws Exception {
+            MvcResult result = mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/export")
+                                    .queryParam("roomId", asks.get(1).getRoomId())
+                    )
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            assertThat(body.lines()).hasSize(1);
+            assertThat((String) JsonPath.read(body.lines().findFirst().orElseThrow(), "$.id")).isEqualTo(asks.get(1).getId());
+            assertThat((String) JsonPath.read(body.lines().findFirst().orElseThrow(), "$.answer")).isEqualTo(asks.get(1).getAnswer());
+        }
+
+        @Test
+        void errorWhenRoomIdIsNotValidUUID() throws Exception {
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/export")
+                                    .queryParam("roomId", "abcde")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
+    @Nested
+    class Stats {
+
+        @Test
+        void statsOfRoomAfterReconciliation() throws Exception {
+            roomStatsService.reconcile();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/stats")
+                                    .queryParam("roomId", asks.get(1).getRoomId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answered").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.unanswered").value(0))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.averageAnswerSeconds").isNumber());
+        }
+
+        @Test
+        void statsFollowAnswers() throws Exception {
+            roomStatsService.reconcile();
+
+            AnswerAskDTO answerAskDTO = new AnswerAskDTO();
+            answerAskDTO.setAnswer("New answer");
+            RoomDTO roomDTO = RoomDTO.builder()
+                    .id(asks.getFirst().getRoomId())
+                    .ownerId(UUID.randomUUID().toString())
+                    .build();
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()));
+            roomStatsService.flush();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/stats")
+                                    .queryParam("roomId", asks.getFirst().getRoomId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answered").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.unanswered").value(0));
+        }
+
+        @Test
+        void changesObservedBeforeReconciliationAreNotAddedAgain() throws Exception {
+            AnswerAskDTO answerAskDTO = new AnswerAskDTO();
+            answerAskDTO.setAnswer("New answer");
+            RoomDTO roomDTO = RoomDTO.builder()
+                    .id(asks.getFirst().getRoomId())
+                    .ownerId(UUID.randomUUID().toString())
+                    .build();
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()));
+            roomStatsService.reconcile();
+            roomStatsService.flush();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/stats")
+                                    .queryParam("roomId", asks.getFirst().getRoomId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answered").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.unanswered").value(0));
+        }
     }
 
     @Nested
@@ -202,6 +544,39 @@ public class AskTestIT {
                     .andExpect(MockMvcResultMatchers.jsonPath("$.question").value(asks.getLast().getQuestion()));
         }
 
+        @Test
+        void notModifiedWhenETagMatches() throws Exception {
+            MvcResult result = mockMvc
+                    .perform(MockMvcRequestBuilders
+                            .get("/api/asks/" + asks.getFirst().getId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"))
+                    .andReturn();
+            String etag = result.getResponse().getHeader("ETag");
+
+            mockMvc
+                    .perform(MockMvcRequestBuilders
+                            .get("/api/asks/" + asks.getFirst().getId())
+                            .header("If-None-Match", etag)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.NOT_MODIFIED.value()))
+                    .andExpect(MockMvcResultMatchers.content().string(""));
+
+            Ask ask = askRepository.findById(asks.getFirst().getId()).orElseThrow();
+            ask.setAnswer("New answer");
+            askRepository.save(ask);
+
+            mockMvc
+                    .perform(MockMvcRequestBuilders
+                            .get("/api/asks/" + asks.getFirst().getId())
+                            .header("If-None-Match", etag)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=60"))
+                    .andExpect(MockMvcResultMatchers.header().string("ETag", Matchers.not(etag)));
+        }
+
         @Test
         void errorWhenNotFoundAksById() throws Exception {
             mockMvc
@@ -225,6 +600,81 @@ public class AskTestIT {
         }
     }
 
+    @Nested
+    class WaitForAnswer {
+
+        @Test
+        void returnRightAwayWhenAlreadyAnswered() throws Exception {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/" + asks.get(1).getId() + "/answer"))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value(asks.get(1).getAnswer()));
+        }
+
+        @Test
+        void wakeUpWhenAnswered() throws Exception {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/" + asks.getFirst().getId() + "/answer"))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            AnswerAskDTO answerAskDTO = new AnswerAskDTO();
+            answerAskDTO.setAnswer("New answer");
+            RoomDTO roomDTO = RoomDTO.builder()
+                    .id(asks.getFirst().getRoomId())
+                    .ownerId(UUID.randomUUID().toString())
+                    .build();
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()));
+
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(asks.getFirst().getId()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value(answerAskDTO.getAnswer()));
+        }
+
+        @Test
+        void readAgainOnTimeout() throws Exception {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/" + asks.getFirst().getId() + "/answer"))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            // Answered without an event reaching this instance, like on another instance whose invalidation was lost
+            Ask answered = askRepository.findById(asks.getFirst().getId()).orElseThrow();
+            answered.setAnswer("Answered elsewhere");
+            answered.setRespondedAt(LocalDateTime.now());
+            askRepository.save(answered);
+            MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext, result.getRequest(), result.getResponse()));
+            }
+
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value("Answered elsewhere"));
+        }
+
+        @Test
+        void errorWhenNotFoundAskById() throws Exception {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/" + UUID.randomUUID() + "/answer"))
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.NOT_FOUND.value()));
+        }
+    }
+
     @Nested
     class Answer {
 
@@ -260,6 +710,89 @@ public class AskTestIT {
             Ask askUpdated = askRepository.findById(asks.getFirst().getId()).orElseThrow(()-> new AssertionFailure("The ask should exist"));
             assertThat(askUpdated.getQuestion()).isEqualTo(asks.getFirst().getQuestion());
             assertThat(askUpdated.getAnswer()).isEqualTo(answerAskDTO.getAnswer());
+            assertThat(meterRegistry.find("asks.db.connection.hold").tag("endpoint", "POST /api/asks/{id}/answer").timer()).isNotNull();
+        }
+
+        @Test
+        void errorWhenAnsweringWithStaleETag() throws Exception {
+            RoomDTO roomDTO = RoomDTO.builder()
+                    .id(asks.getFirst().getRoomId())
+                    .ownerId(UUID.randomUUID().toString())
+                    .build();
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+            String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/" + asks.getFirst().getId()))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            answerAskDTO.setAnswer("First answer");
+            mockMvc
+                    .perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                                    .header(HttpHeaders.IF_MATCH, eTag)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"" + asks.getFirst().getId() + "-" + (asks.getFirst().getVersion() + 1) + "\""));
+
+            answerAskDTO.setAnswer("Second answer");
+            mockMvc
+                    .perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                                    .header(HttpHeaders.IF_MATCH, eTag)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.CONFLICT.value()));
+
+            assertThat(askRepository.findById(asks.getFirst().getId()).orElseThrow().getAnswer()).isEqualTo("First answer");
+        }
+
+        @Test
+        void answerWithProjectedOwnerWhileRoomsIsDown() throws Exception {
+            answerAskDTO.setAnswer("New answer");
+            String ownerId = UUID.randomUUID().toString();
+            roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.CREATED, asks.getFirst().getRoomId(), ownerId));
+            given(roomClient.findById(anyString())).willThrow(new ForbiddenException("Rooms service not available. Try later"));
+
+            mockMvc
+                    .perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", ownerId)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value(answerAskDTO.getAnswer()));
+
+            verify(roomClient, never()).findById(anyString());
+        }
+
+        @Test
+        void errorWhenRoomDeletedByEventWithoutOwner() throws Exception {
+            answerAskDTO.setAnswer("New answer");
+            String ownerId = UUID.randomUUID().toString();
+            String notProjectedRoomId = UUID.randomUUID().toString();
+            roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.CREATED, asks.getFirst().getRoomId(), ownerId));
+            roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.DELETED, asks.getFirst().getRoomId(), null));
+            roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.DELETED, notProjectedRoomId, null));
+
+            mockMvc
+                    .perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/" + asks.getFirst().getId() + "/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                                    .header("X-UserId", ownerId)
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.NOT_FOUND.value()));
+
+            assertThatThrownBy(() -> roomOwnership.ownerOf(notProjectedRoomId)).isInstanceOf(NotFoundException.class);
+            verify(roomClient, never()).findById(anyString());
         }
 
         @Test
@@ -368,6 +901,99 @@ public class AskTestIT {
         }
     }
 
+    @Nested
+    class Batch {
+        RoomDTO roomDTO;
+        List<Ask> roomAsks;
+
+        @BeforeEach
+        void setup() {
+            roomDTO = RoomDTO.builder()
+                    .id(UUID.randomUUID().toString())
+                    .ownerId(UUID.randomUUID().toString())
+                    .build();
+            roomAsks = askRepository.saveAll(List.of(
+                    Ask.builder().roomId(roomDTO.getId()).userId(UUID.randomUUID().toString()).question("First room question").createdAt(LocalDateTime.now()).build(),
+                    Ask.builder().roomId(roomDTO.getId()).userId(UUID.randomUUID().toString()).question("Second room question").createdAt(LocalDateTime.now()).build()
+            ));
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+        }
+
+        @Test
+        void answerBatch() throws Exception {
+            AnswerAskBatchDTO batch = AnswerAskBatchDTO.builder()
+                    .roomId(roomDTO.getId())
+                    .answers(List.of(
+                            new AnswerAskItemDTO(roomAsks.getFirst().getId(), "First answer"),
+                            new AnswerAskItemDTO(asks.getFirst().getId(), "Ask of another room"),
+                            new AnswerAskItemDTO(roomAsks.getLast().getId(), "Second answer")
+                    ))
+                    .build();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/batch/answer")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(batch))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(2))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].ask.answer").value("First answer"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error", Matchers.containsString("Not found ask with id")))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[2].ask.answer").value("Second answer"));
+
+            verify(roomClient, times(1)).findById(roomDTO.getId());
+            assertThat(askRepository.findById(roomAsks.getFirst().getId()).orElseThrow().getAnswer()).isEqualTo("First answer");
+            assertThat(askRepository.findById(roomAsks.getLast().getId()).orElseThrow().getRespondedAt()).isNotNull();
+            assertThat(askRepository.findById(asks.getFirst().getId()).orElseThrow().getAnswer()).isNull();
+        }
+
+        @Test
+        void deleteBatch() throws Exception {
+            DeleteAskBatchDTO batch = DeleteAskBatchDTO.builder()
+                    .roomId(roomDTO.getId())
+                    .ids(List.of(roomAsks.getFirst().getId(), asks.getFirst().getId()))
+                    .build();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/batch/delete")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(batch))
+                                    .header("X-UserId", roomDTO.getOwnerId())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].ask.id").value(roomAsks.getFirst().getId()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error").exists());
+
+            assertThat(askRepository.findById(roomAsks.getFirst().getId())).isEmpty();
+            assertThat(askRepository.findById(roomAsks.getLast().getId())).isPresent();
+            assertThat(askRepository.findById(asks.getFirst().getId())).isPresent();
+        }
+
+        @Test
+        void errorWhenRoomBelongsToAnotherUser() throws Exception {
+            DeleteAskBatchDTO batch = DeleteAskBatchDTO.builder()
+                    .roomId(roomDTO.getId())
+                    .ids(List.of(roomAsks.getFirst().getId()))
+                    .build();
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .post("/api/asks/batch/delete")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(new ObjectMapper().writeValueAsString(batch))
+                                    .header("X-UserId", UUID.randomUUID().toString())
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.FORBIDDEN.value()));
+
+            assertThat(askRepository.findById(roomAsks.getFirst().getId())).isPresent();
+        }
+    }
+
     @Nested
     class DeleteAnswer {
         @Test
@@ -4,8 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.service.AskAnswerWaiters;
+import com.springcloud.demo.asksmicroservice.asks.service.AskExporter;
 import com.springcloud.demo.asksmicroservice.asks.service.AskService;
+import com.springcloud.demo.asksmicroservice.asks.service.AskStreamHub;
+import com.springcloud.demo.asksmicroservice.asks.service.RoomStatsService;
 import com.springcloud.demo.asksmicroservice.dto.SimpleResponseDTO;
 import com.springcloud.demo.asksmicroservice.monitoring.TracingExceptions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,11 +22,14 @@ import static org.mockito.BDDMockito.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -33,6 +41,18 @@ class AskControllerTest {
     @MockBean
     private AskService askService;
 
+    @MockBean
+    private AskExporter askExporter;
+
+    @MockBean
+    private AskStreamHub askStreamHub;
+
+    @MockBean
+    private AskAnswerWaiters askAnswerWaiters;
+
+    @MockBean
+    private RoomStatsService roomStatsService;
+
     @MockBean
     private TracingExceptions tracingExceptions;
 
@@ -166,6 +186,87 @@ class AskControllerTest {
                             filter.getRoomId().equals(roomId)
             ));
         }
+
+        @Test
+        void findAllByCursor() throws Exception {
+            given(askService.findAllByCursor(any(FilterAskDTO.class))).willReturn(
+                    PageAskDTO.builder().asks(expectedResponse).nextCursor("next").build()
+            );
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks")
+                                    .queryParam("cursor", "")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "next"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(expectedResponse.size()));
+
+            verify(askService, never()).findAll(any(FilterAskDTO.class));
+        }
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void exportByRoom() throws Exception {
+            String roomId = UUID.randomUUID().toString();
+
+            MvcResult result = mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/export")
+                                    .queryParam("roomId", roomId)
+                    )
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
+                    .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON));
+
+            verify(askExporter).exportByRoom(eq(roomId), any());
+            verify(askExporter, never()).exportByUser(anyString(), any());
+        }
+
+        @Test
+        void errorWhenMissingRoomIdAndUserId() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/asks/export"))
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+
+            verifyNoInteractions(askExporter);
+        }
+    }
+
+    @Nested
+    class Stream {
+
+        @Test
+        void subscribeToRoom() throws Exception {
+            String roomId = UUID.randomUUID().toString();
+            given(askStreamHub.subscribe(roomId)).willReturn(new SseEmitter());
+
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/stream")
+                                    .queryParam("roomId", roomId)
+                    )
+                    .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+            verify(askStreamHub).subscribe(roomId);
+        }
+
+        @Test
+        void errorWhenRoomIdIsNotValidUUID() throws Exception {
+            mockMvc.perform(
+                            MockMvcRequestBuilders
+                                    .get("/api/asks/stream")
+                                    .queryParam("roomId", "abcde")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+
+            verifyNoInteractions(askStreamHub);
+        }
     }
 
     @Nested
@@ -238,7 +339,7 @@ class AskControllerTest {
         @Test
         void answerAsk() throws Exception {
             answerAskDTO.setAnswer("first answer");
-            given(askService.answer(anyString(), any(AnswerAskDTO.class), anyString())).willReturn(expectedResponse);
+            given(askService.answer(anyString(), any(AnswerAskDTO.class), anyString(), any())).willReturn(expectedResponse);
 
             mockMvc
                     .perform(MockMvcRequestBuilders
@@ -251,7 +352,42 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(expectedResponse.getId()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value(expectedResponse.getAnswer()));
 
-            verify(askService).answer(eq(idToUpdate), argThat(args -> args.getAnswer().equals(answerAskDTO.getAnswer())), anyString());
+            verify(askService).answer(eq(idToUpdate), argThat(args -> args.getAnswer().equals(answerAskDTO.getAnswer())), anyString(), isNull());
+        }
+
+        @Test
+        void answerAskAtVersionOfIfMatch() throws Exception {
+            answerAskDTO.setAnswer("first answer");
+            given(askService.answer(anyString(), any(AnswerAskDTO.class), anyString(), any())).willReturn(expectedResponse);
+
+            mockMvc
+                    .perform(MockMvcRequestBuilders
+                            .post("/api/asks/" + idToUpdate + "/answer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                            .header("X-UserId", UUID.randomUUID().toString())
+                            .header(HttpHeaders.IF_MATCH, "\"" + idToUpdate + "-3\"")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()));
+
+            verify(askService).answer(eq(idToUpdate), any(AnswerAskDTO.class), anyString(), eq(3L));
+        }
+
+        @Test
+        void errorWhenIfMatchIsOfAnotherAsk() throws Exception {
+            answerAskDTO.setAnswer("first answer");
+
+            mockMvc
+                    .perform(MockMvcRequestBuilders
+                            .post("/api/asks/" + idToUpdate + "/answer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(new ObjectMapper().writeValueAsString(answerAskDTO))
+                            .header("X-UserId", UUID.randomUUID().toString())
+                            .header(HttpHeaders.IF_MATCH, "\"" + UUID.randomUUID() + "-3\"")
+                    )
+                    .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()));
+
+            verify(askService, never()).answer(anyString(), any(AnswerAskDTO.class), anyString(), any());
         }
 
         @Test
@@ -267,7 +403,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.errors.size()").value(1));
 
-            verify(askService, never()).answer(anyString(), any(AnswerAskDTO.class), anyString());
+            verify(askService, never()).answer(anyString(), any(AnswerAskDTO.class), anyString(), any());
         }
 
         @Test
@@ -284,7 +420,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.errors.size()").value(1));
 
-            verify(askService, never()).answer(anyString(), any(AnswerAskDTO.class), anyString());
+            verify(askService, never()).answer(anyString(), any(AnswerAskDTO.class), anyString(), any());
         }
     }
 
@@ -300,7 +436,7 @@ class AskControllerTest {
 
         @Test
         void delete() throws Exception {
-            given(askService.delete(anyString(), anyString())).willReturn(new SimpleResponseDTO(true));
+            given(askService.delete(anyString(), anyString(), any())).willReturn(new SimpleResponseDTO(true));
 
             mockMvc
                     .perform(MockMvcRequestBuilders
@@ -310,7 +446,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.status().is(HttpStatus.OK.value()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.ok").value(true));
 
-            verify(askService).delete(eq(idToDelete), anyString());
+            verify(askService).delete(eq(idToDelete), anyString(), isNull());
         }
         @Test
         void errorWhenIdIsNotValidUUID() throws Exception {
@@ -324,7 +460,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.errors.size()").value(1));
 
-            verify(askService, never()).delete(anyString(), anyString());
+            verify(askService, never()).delete(anyString(), anyString(), any());
         }
     }
 
@@ -348,7 +484,7 @@ class AskControllerTest {
 
         @Test
         void deleteAnswer() throws Exception {
-            given(askService.deleteAnswer(anyString(), anyString())).willReturn(expectedResponse);
+            given(askService.deleteAnswer(anyString(), anyString(), any())).willReturn(expectedResponse);
 
             mockMvc.perform(MockMvcRequestBuilders
                             .delete("/api/asks/" + idToDeleteAnswer + "/answer")
@@ -359,7 +495,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.jsonPath("$.question").value(expectedResponse.getQuestion()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.answer").value(expectedResponse.getAnswer()));
 
-            verify(askService).deleteAnswer(eq(idToDeleteAnswer), anyString());
+            verify(askService).deleteAnswer(eq(idToDeleteAnswer), anyString(), isNull());
         }
 
         @Test
@@ -373,7 +509,7 @@ class AskControllerTest {
                     .andExpect(MockMvcResultMatchers.status().is(HttpStatus.BAD_REQUEST.value()))
                     .andExpect(MockMvcResultMatchers.jsonPath("$.errors.size()").value(1));
 
-            verify(askService, never()).deleteAnswer(anyString(), anyString());
+            verify(askService, never()).deleteAnswer(anyString(), anyString(), any());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.springcloud.demo.asksmicroservice.asks.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.PublishAskEventDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PublishSlimAskEventDTO;
+import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+class AskEventEncoderTest {
+
+    JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+
+    Ask ask;
+    RoomDTO room;
+    UserDTO user;
+
+    @BeforeEach
+    void setup() {
+        UserDTO owner = UserDTO.builder().id(UUID.randomUUID()).email("owner@mail.com").name("Owner").build();
+        user = UserDTO.builder().id(UUID.randomUUID()).email("user@mail.com").name("User").build();
+        room = RoomDTO
+                .builder()
+                .id(UUID.randomUUID().toString())
+                .num(1)
+                .name("Room")
+                .description("Room description")
+                .ownerId(owner.getId().toString())
+                .owner(owner)
+                .build();
+        ask = Ask
+                .builder()
+                .id(UUID.randomUUID().toString())
+                .question("First question")
+                .createdAt(LocalDateTime.now())
+                .roomId(room.getId())
+                .userId(user.getId().toString())
+                .build();
+    }
+
+    @Test
+    void encodeFullEventAsJson() {
+        AskEventEncoder.EncodedEvent event = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.JSON, false).encode(ask, room, user);
+
+        PublishAskEventDTO decoded = jsonCodec.fromJson(event.payload(), PublishAskEventDTO.class);
+
+        assertThat(decoded.getId()).isEqualTo(ask.getId());
+        assertThat(decoded.getRoom().getOwner().getEmail()).isEqualTo("owner@mail.com");
+        assertThat(decoded.getUser().getId()).isEqualTo(user.getId());
+        assertThat(event.headers())
+                .containsEntry(AskEventEncoder.CONTENT_TYPE_HEADER, AskEventEncoder.JSON_CONTENT_TYPE)
+                .containsEntry(AskEventEncoder.VARIANT_HEADER, "full");
+    }
+
+    @Test
+    void encodeSlimEventAsJson() {
+        AskEventEncoder.EncodedEvent event = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.JSON, true).encode(ask, room, user);
+
+        PublishSlimAskEventDTO decoded = jsonCodec.fromJson(event.payload(), PublishSlimAskEventDTO.class);
+
+        assertThat(decoded.getRoomId()).isEqualTo(room.getId());
+        assertThat(decoded.getOwnerId()).isEqualTo(room.getOwnerId());
+        assertThat(decoded.getUserId()).isEqualTo(ask.getUserId());
+        assertThat(event.headers()).containsEntry(AskEventEncoder.VARIANT_HEADER, "slim");
+    }
+
+    @Test
+    void binaryEncodingIsSmallerThanJson() {
+        byte[] json = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.JSON, false).encode(ask, room, user).payload();
+        AskEventEncoder.EncodedEvent binary = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.BINARY, false).encode(ask, room, user);
+        byte[] slimBinary = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.BINARY, true).encode(ask, room, user).payload();
+
+        assertThat(binary.payload()[0]).isEqualTo(AskEventEncoder.SCHEMA_VERSION);
+        assertThat(binary.payload().length).isLessThan(json.length / 2);
+        assertThat(slimBinary.length).isLessThan(binary.payload().length);
+        assertThat(binary.headers().get(AskEventEncoder.CONTENT_TYPE_HEADER)).startsWith(AskEventEncoder.BINARY_CONTENT_TYPE);
+    }
+}
@@ -3,6 +3,7 @@ package com.springcloud.demo.asksmicroservice.asks.mapper;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskView;
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +49,28 @@ class AskMapperTest {
         assertThat(response.getRoomId()).isEqualTo(ask.getRoomId());
         assertThat(response.getUserId()).isEqualTo(ask.getUserId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void askViewToResponseAskDto(){
+        AskView ask = new AskView(
+                UUID.randomUUID().toString(),
+                LocalDateTime.now(),
+                null,
+                "First question",
+                null,
+                UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(),
+                2L
+        );
+
+        ResponseAskDTO response = AskMapper.askViewToResponseAskDto(ask);
+
+        assertThat(response.getId()).isEqualTo(ask.id());
+        assertThat(response.getQuestion()).isEqualTo(ask.question());
+        assertThat(response.getCreatedAt()).isEqualTo(ask.createdAt().toString());
+        assertThat(response.getRespondedAt()).isNull();
+        assertThat(response.getRoomId()).isEqualTo(ask.roomId());
+        assertThat(response.getUserId()).isEqualTo(ask.userId());
+        assertThat(response.getVersion()).isEqualTo(ask.version());
+    }
+}
@@ -0,0 +1,113 @@
+package com.springcloud.demo.asksmicroservice.asks.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class AskBulkRepositoryImplTest {
+
+    SingleConnectionDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    Connection connection;
+    AskBulkRepositoryImpl askBulkRepository;
+
+    String roomId;
+    String current;
+    String changed;
+    LocalDateTime respondedAt;
+
+    @BeforeEach
+    void setup() throws Exception {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bulk", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE asks (
+                    id CHAR(36) PRIMARY KEY,
+                    responded_at TIMESTAMP NULL,
+                    answer VARCHAR(255) NULL,
+                    room_id CHAR(36) NOT NULL,
+                    version BIGINT NOT NULL DEFAULT 0
+                )
+                """);
+        roomId = UUID.randomUUID().toString();
+        current = UUID.randomUUID().toString();
+        changed = UUID.randomUUID().toString();
+        respondedAt = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO asks (id, room_id) VALUES (?, ?), (?, ?)", current, roomId, changed, roomId);
+        // answered by someone else after the batch read it at version 0
+        jdbcTemplate.update("UPDATE asks SET answer = 'Other', version = 1 WHERE id = ?", changed);
+
+        connection = spy(dataSource.getConnection());
+        Session session = mock(Session.class);
+        given(session.doReturningWork(any())).willAnswer(invocation -> invocation.<ReturningWork<?>>getArgument(0).execute(connection));
+        EntityManager entityManager = mock(EntityManager.class);
+        given(entityManager.unwrap(Session.class)).willReturn(session);
+        askBulkRepository = new AskBulkRepositoryImpl(entityManager);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DROP TABLE asks");
+        dataSource.destroy();
+    }
+
+    @Test
+    void skipAsksChangedSinceTheyWereRead() {
+        var answered = askBulkRepository.answerAll(roomId, Map.of(current, "Answer", changed, "Answer"), Map.of(current, 0L, changed, 0L), respondedAt);
+
+        assertThat(answered).containsExactly(current);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM asks WHERE id = ?", Long.class, current)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT answer FROM asks WHERE id = ?", String.class, changed)).isEqualTo("Other");
+    }
+
+    @Test
+    void checkRowsWhenDriverReportsNoInfo() throws Exception {
+        willAnswer(invocation -> {
+            PreparedStatement statement = spy((PreparedStatement) invocation.callRealMethod());
+            if (invocation.<String>getArgument(0).startsWith("UPDATE")) {
+                willAnswer(execute -> {
+                    int[] updated = (int[]) execute.callRealMethod();
+                    Arrays.fill(updated, Statement.SUCCESS_NO_INFO);
+                    return updated;
+                }).given(statement).executeBatch();
+            }
+            return statement;
+        }).given(connection).prepareStatement(anyString());
+
+        var answered = askBulkRepository.answerAll(roomId, Map.of(current, "Answer", changed, "Answer"), Map.of(current, 0L, changed, 0L), respondedAt);
+
+        assertThat(answered).containsExactly(current);
+    }
+
+    @Test
+    void deleteOnlyAsksUnchangedSinceTheyWereRead() {
+        var deleted = askBulkRepository.deleteAll(roomId, Map.of(current, 0L, changed, 0L));
+
+        assertThat(deleted).containsExactly(current);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM asks", String.class)).containsExactly(changed);
+    }
+
+    @Test
+    void deleteNothingOfAnotherRoom() {
+        var deleted = askBulkRepository.deleteAll(UUID.randomUUID().toString(), Map.of(current, 0L));
+
+        assertThat(deleted).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM asks", String.class)).containsExactlyInAnyOrder(current, changed);
+    }
+}
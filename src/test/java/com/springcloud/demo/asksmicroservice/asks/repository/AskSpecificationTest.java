@@ -64,4 +64,22 @@ class AskSpecificationTest {
         verify(builder).equal(root.get("roomId"), filters.getRoomId());
     }
 
+    @Test
+    void withUnansweredFilter() {
+        filters.setAnswered(false);
+
+        askSpecification.withFilters(filters).toPredicate(root, query, builder);
+
+        verify(builder).isNull(root.get("answer"));
+    }
+
+    @Test
+    void withAnsweredFilter() {
+        filters.setAnswered(true);
+
+        askSpecification.withFilters(filters).toPredicate(root, query, builder);
+
+        verify(builder).isNotNull(root.get("answer"));
+    }
+
 }
\ No newline at end of file
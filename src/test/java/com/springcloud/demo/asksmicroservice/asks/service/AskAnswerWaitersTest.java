@@ -0,0 +1,109 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AskAnswerWaitersTest {
+
+    @Mock
+    AskService askService;
+
+    AskAnswerWaiters askAnswerWaiters;
+    ResponseAskDTO ask;
+
+    @BeforeEach
+    void setup() {
+        askAnswerWaiters = new AskAnswerWaiters(askService, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        ask = ResponseAskDTO.builder()
+                .id(UUID.randomUUID().toString())
+                .question("Question")
+                .roomId(UUID.randomUUID().toString())
+                .userId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    @Test
+    void wakeEveryWaiterOfAnsweredAsk() {
+        DeferredResult<ResponseAskDTO> first = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+        DeferredResult<ResponseAskDTO> second = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+        DeferredResult<ResponseAskDTO> other = askAnswerWaiters.await(UUID.randomUUID().toString(), Duration.ofSeconds(30));
+
+        ResponseAskDTO answered = ResponseAskDTO.builder().id(ask.getId()).question(ask.getQuestion()).answer("Answer").build();
+        askAnswerWaiters.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWERED, ask, answered, 0L));
+
+        assertThat(first.getResult()).isEqualTo(answered);
+        assertThat(second.getResult()).isEqualTo(answered);
+        assertThat(other.hasResult()).isFalse();
+        assertThat(askAnswerWaiters.waitingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failWaitersOfDeletedAsk() {
+        DeferredResult<ResponseAskDTO> waiter = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+
+        askAnswerWaiters.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.DELETED, ask, ask, 0L));
+
+        assertThat(waiter.getResult()).isInstanceOf(NotFoundException.class);
+        assertThat(askAnswerWaiters.waitingCount()).isZero();
+    }
+
+    @Test
+    void ignoreOtherChanges() {
+        DeferredResult<ResponseAskDTO> waiter = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+
+        askAnswerWaiters.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWER_DELETED, ask, ask, 0L));
+
+        assertThat(waiter.hasResult()).isFalse();
+        assertThat(askAnswerWaiters.waitingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readAskAnsweredOnAnotherInstance() {
+        DeferredResult<ResponseAskDTO> first = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+        DeferredResult<ResponseAskDTO> second = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+        ResponseAskDTO answered = ResponseAskDTO.builder().id(ask.getId()).question(ask.getQuestion()).answer("Answer").build();
+        given(askService.findById(ask.getId())).willReturn(answered);
+
+        askAnswerWaiters.onRemoteChange(ask.getId(), AskChangedEvent.Type.ANSWERED);
+
+        verify(askService, times(1)).findById(ask.getId());
+        assertThat(first.getResult()).isEqualTo(answered);
+        assertThat(second.getResult()).isEqualTo(answered);
+        assertThat(askAnswerWaiters.waitingCount()).isZero();
+    }
+
+    @Test
+    void failWaitersOfAskDeletedOnAnotherInstance() {
+        DeferredResult<ResponseAskDTO> waiter = askAnswerWaiters.await(ask.getId(), Duration.ofSeconds(30));
+        given(askService.findById(ask.getId())).willThrow(new NotFoundException("Not found ask with id: " + ask.getId()));
+
+        askAnswerWaiters.onRemoteChange(ask.getId(), AskChangedEvent.Type.DELETED);
+
+        assertThat(waiter.getResult()).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void readNothingWhenNobodyWaitsForRemoteChange() {
+        askAnswerWaiters.await(UUID.randomUUID().toString(), Duration.ofSeconds(30));
+
+        askAnswerWaiters.onRemoteChange(ask.getId(), AskChangedEvent.Type.ANSWERED);
+        askAnswerWaiters.onRemoteChange(null, null);
+
+        verifyNoInteractions(askService);
+    }
+}
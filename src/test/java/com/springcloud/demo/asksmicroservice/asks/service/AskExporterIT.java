@@ -0,0 +1,113 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Export a million asks measuring the heap retained halfway through. The database is a file, so H2 spills
+ * the sorted result to disk past {@code MAX_MEMORY_ROWS} and what is retained is what the exporter keeps.
+ */
+class AskExporterIT {
+
+    static final int ROOM_ASKS = 1_000_000;
+    static final long MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+    static final String ROOM_ID = UUID.randomUUID().toString();
+
+    static DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:./target/export-it;DB_CLOSE_DELAY=-1;MAX_MEMORY_ROWS=10000");
+    static JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    AskExporter askExporter = new AskExporter(dataSource, new JsonCodec(new ObjectMapper()), 500);
+
+    @BeforeAll
+    static void setup() {
+        jdbcTemplate.execute("""
+                CREATE VIEW asks AS
+                SELECT '00000000-0000-0000-0000-' || LPAD(X, 12, '0') AS id,
+                       DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00') AS created_at,
+                       CAST(NULL AS TIMESTAMP) AS responded_at,
+                       'Question ' || X AS question,
+                       CAST(NULL AS VARCHAR) AS answer,
+                       '%s' AS room_id,
+                       '%s' AS user_id,
+                       CAST(0 AS BIGINT) AS version
+                FROM SYSTEM_RANGE(1, %d)
+                """.formatted(ROOM_ID, UUID.randomUUID(), ROOM_ASKS));
+    }
+
+    @AfterAll
+    static void cleanup() {
+        jdbcTemplate.execute("DROP VIEW asks");
+    }
+
+    @Test
+    void exportLargeRoomWithBoundedHeap() {
+        LineCountingStream out = new LineCountingStream(ROOM_ASKS / 2);
+        long before = retainedHeap();
+
+        long rows = askExporter.exportByRoom(ROOM_ID, out);
+
+        assertThat(rows).isEqualTo(ROOM_ASKS);
+        assertThat(out.lines).isEqualTo(ROOM_ASKS);
+        assertThat(out.firstLine).contains("\"question\":\"Question 1\"");
+        assertThat(out.lastLine).contains("\"question\":\"Question " + ROOM_ASKS + "\"");
+        assertThat(out.retainedHalfway - before).isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Count lines keeping only the first and the last one, measuring the retained heap once {@code measureAt} are written
+     */
+    static class LineCountingStream extends OutputStream {
+
+        final long measureAt;
+        long lines;
+        long retainedHalfway;
+        String firstLine;
+        String lastLine;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LineCountingStream(long measureAt) {
+            this.measureAt = measureAt;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            if (b != '\n') {
+                line.write(b);
+                return;
+            }
+            lastLine = line.toString(StandardCharsets.UTF_8);
+            if (firstLine == null) {
+                firstLine = lastLine;
+            }
+            line.reset();
+            if (++lines == measureAt) {
+                retainedHalfway = retainedHeap();
+            }
+        }
+    }
+}
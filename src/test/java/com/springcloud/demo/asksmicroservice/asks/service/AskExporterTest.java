@@ -0,0 +1,85 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AskExporterTest {
+
+    static final int ROOM_ASKS = 1_000;
+    static final String ROOM_ID = UUID.randomUUID().toString();
+    static final String USER_ID = UUID.randomUUID().toString();
+
+    static DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1");
+    static JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+    AskExporter askExporter = new AskExporter(dataSource, jsonCodec, 500);
+
+    /**
+     * The asks table is a view generating the rows, a million of them are exported in {@link AskExporterIT}
+     */
+    @BeforeAll
+    static void setup() {
+        jdbcTemplate.execute("""
+                CREATE VIEW asks AS
+                SELECT '00000000-0000-0000-0000-' || LPAD(X, 12, '0') AS id,
+                       DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00') AS created_at,
+                       CAST(NULL AS TIMESTAMP) AS responded_at,
+                       'Question ' || X AS question,
+                       CAST(NULL AS VARCHAR) AS answer,
+                       '%s' AS room_id,
+                       '%s' AS user_id,
+                       CAST(0 AS BIGINT) AS version
+                FROM SYSTEM_RANGE(1, %d)
+                UNION ALL
+                SELECT '%s', TIMESTAMP '2024-01-01 00:00:00', TIMESTAMP '2024-01-02 00:00:00', 'First question', 'Answer', '%s', '%s', 0
+                """.formatted(ROOM_ID, UUID.randomUUID(), ROOM_ASKS, UUID.randomUUID(), UUID.randomUUID(), USER_ID));
+    }
+
+    @AfterAll
+    static void cleanup() {
+        jdbcTemplate.execute("DROP VIEW asks");
+    }
+
+    @Test
+    void exportByUserAsNdjson() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = askExporter.exportByUser(USER_ID, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        ResponseAskDTO ask = jsonCodec.fromJson(lines[0], ResponseAskDTO.class);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(lines).hasSize(1);
+        assertThat(ask.getUserId()).isEqualTo(USER_ID);
+        assertThat(ask.getAnswer()).isEqualTo("Answer");
+        assertThat(ask.getRespondedAt()).isEqualTo("2024-01-02T00:00");
+    }
+
+    @Test
+    void exportRoomOldestFirst() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = askExporter.exportByRoom(ROOM_ID, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(rows).isEqualTo(ROOM_ASKS);
+        assertThat(lines).hasSize(ROOM_ASKS);
+        assertThat(lines[0]).contains("\"question\":\"Question 1\"");
+        assertThat(lines[ROOM_ASKS - 1]).contains("\"question\":\"Question " + ROOM_ASKS + "\"");
+    }
+}
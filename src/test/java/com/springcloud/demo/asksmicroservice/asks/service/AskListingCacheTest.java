@@ -0,0 +1,109 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AskListingCacheTest {
+
+    AskListingCache askListingCache;
+    AtomicInteger loads;
+    String roomId;
+    String userId;
+
+    @BeforeEach
+    void setup() {
+        askListingCache = new AskListingCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        roomId = UUID.randomUUID().toString();
+        userId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void repeatedListingIsLoadedOnce() {
+        askListingCache.get(FilterAskDTO.builder().roomId(roomId).build(), this::load);
+        askListingCache.get(FilterAskDTO.builder().roomId(roomId).build(), this::load);
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateListingsOfChangedRoom() {
+        FilterAskDTO roomListing = FilterAskDTO.builder().roomId(roomId).build();
+        FilterAskDTO otherRoomListing = FilterAskDTO.builder().roomId(UUID.randomUUID().toString()).build();
+        FilterAskDTO allListing = FilterAskDTO.builder().build();
+        askListingCache.get(roomListing, this::load);
+        askListingCache.get(otherRoomListing, this::load);
+        askListingCache.get(allListing, this::load);
+
+        askListingCache.onAskChanged(changed(roomId, userId));
+        askListingCache.get(roomListing, this::load);
+        askListingCache.get(otherRoomListing, this::load);
+        askListingCache.get(allListing, this::load);
+
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void invalidateUserListingsOnlyForChangedUser() {
+        FilterAskDTO userListing = FilterAskDTO.builder().userId(userId).build();
+        FilterAskDTO otherUserListing = FilterAskDTO.builder().userId(UUID.randomUUID().toString()).build();
+        askListingCache.get(userListing, this::load);
+        askListingCache.get(otherUserListing, this::load);
+
+        askListingCache.onAskChanged(changed(roomId, userId));
+        askListingCache.get(userListing, this::load);
+        askListingCache.get(otherUserListing, this::load);
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateChangeOfAnotherInstance() {
+        FilterAskDTO roomListing = FilterAskDTO.builder().roomId(roomId).build();
+        FilterAskDTO unansweredRoomListing = FilterAskDTO.builder().roomId(roomId).answered(false).build();
+        askListingCache.get(roomListing, this::load);
+        askListingCache.get(unansweredRoomListing, this::load);
+
+        askListingCache.invalidate(roomId, userId);
+        askListingCache.get(roomListing, this::load);
+        askListingCache.get(unansweredRoomListing, this::load);
+        askListingCache.get(roomListing, this::load);
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void notKeepListingLoadedWhileRoomChanged() {
+        FilterAskDTO roomListing = FilterAskDTO.builder().roomId(roomId).build();
+
+        askListingCache.get(roomListing, () -> {
+            askListingCache.onAskChanged(changed(roomId, userId));
+            return load();
+        });
+        askListingCache.get(roomListing, this::load);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private PageAskDTO load() {
+        loads.incrementAndGet();
+        return PageAskDTO.builder().asks(List.of()).build();
+    }
+
+    private static AskChangedEvent changed(String roomId, String userId) {
+        ResponseAskDTO ask = ResponseAskDTO.builder().id(UUID.randomUUID().toString()).roomId(roomId).userId(userId).build();
+        return new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.ListingInvalidationDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.messaging.MessagingProducer;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AskListingInvalidationsTest {
+
+    @Mock
+    private AskListingCache askListingCache;
+
+    @Mock
+    private AskAnswerWaiters askAnswerWaiters;
+
+    @Mock
+    private MessagingProducer messagingProducer;
+
+    private final JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+
+    private AskListingInvalidations askListingInvalidations;
+
+    String roomId;
+    String userId;
+    String askId;
+
+    @BeforeEach
+    void setup() {
+        askListingInvalidations = new AskListingInvalidations(askListingCache, askAnswerWaiters, messagingProducer, jsonCodec, "topic");
+        roomId = UUID.randomUUID().toString();
+        userId = UUID.randomUUID().toString();
+        askId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void sendChangedRoomAndUser() {
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willReturn(CompletableFuture.completedFuture(null));
+
+        askListingInvalidations.onAskChanged(changed());
+
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(messagingProducer).sendMessage(eq("topic"), eq(roomId), payload.capture(), eq(Map.of()));
+        ListingInvalidationDTO invalidation = jsonCodec.fromJson(payload.getValue(), ListingInvalidationDTO.class);
+        assertThat(invalidation.getRoomId()).isEqualTo(roomId);
+        assertThat(invalidation.getUserId()).isEqualTo(userId);
+        assertThat(invalidation.getAskId()).isEqualTo(askId);
+        assertThat(invalidation.getType()).isEqualTo(AskChangedEvent.Type.ANSWERED);
+        assertThat(invalidation.getOrigin()).isNotNull();
+    }
+
+    @Test
+    void invalidateChangesOfOtherInstances() {
+        ListingInvalidationDTO invalidation = new ListingInvalidationDTO(UUID.randomUUID().toString(), roomId, userId, askId, AskChangedEvent.Type.ANSWERED);
+
+        askListingInvalidations.onInvalidation(jsonCodec.toBytes(invalidation));
+
+        verify(askListingCache).invalidate(roomId, userId);
+        verify(askAnswerWaiters).onRemoteChange(askId, AskChangedEvent.Type.ANSWERED);
+    }
+
+    @Test
+    void skipOwnChanges() {
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willReturn(CompletableFuture.completedFuture(null));
+        askListingInvalidations.onAskChanged(changed());
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(messagingProducer).sendMessage(anyString(), anyString(), payload.capture(), anyMap());
+
+        askListingInvalidations.onInvalidation(payload.getValue());
+
+        verify(askListingCache, never()).invalidate(anyString(), anyString());
+        verifyNoInteractions(askAnswerWaiters);
+    }
+
+    private AskChangedEvent changed() {
+        ResponseAskDTO ask = ResponseAskDTO.builder().id(askId).roomId(roomId).userId(userId).build();
+        return new AskChangedEvent(AskChangedEvent.Type.ANSWERED, ask, ask, 0L);
+    }
+}
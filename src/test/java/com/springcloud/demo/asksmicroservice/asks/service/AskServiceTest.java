@@ -1,22 +1,43 @@
 package com.springcloud.demo.asksmicroservice.asks.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.AnswerAskItemDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.BatchResponseDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.CreateAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.DeleteAskBatchDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.FilterAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.PageAskDTO;
 import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.asks.mapper.AskEventEncoder;
 import com.springcloud.demo.asksmicroservice.asks.model.Ask;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskCursor;
 import com.springcloud.demo.asksmicroservice.asks.repository.AskRepository;
 
 import static org.assertj.core.api.Assertions.*;
 
 import com.springcloud.demo.asksmicroservice.asks.repository.AskSpecification;
+import com.springcloud.demo.asksmicroservice.asks.repository.AskView;
+import com.springcloud.demo.asksmicroservice.client.RemoteCallExecutor;
 import com.springcloud.demo.asksmicroservice.client.rooms.RoomClientImpl;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
-import com.springcloud.demo.asksmicroservice.client.users.UserClientImpl;
+import com.springcloud.demo.asksmicroservice.client.users.UserBatchLoader;
 import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
 import com.springcloud.demo.asksmicroservice.dto.SimpleResponseDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.BadRequestException;
+import com.springcloud.demo.asksmicroservice.exceptions.ConflictException;
+import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
+import com.springcloud.demo.asksmicroservice.exceptions.InheritedException;
 import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
-import com.springcloud.demo.asksmicroservice.messaging.MessagingProducer;
+import com.springcloud.demo.asksmicroservice.messaging.repository.OutboxEventRepository;
+import com.springcloud.demo.asksmicroservice.rooms.RoomOwnership;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -27,17 +48,24 @@ import static org.mockito.BDDMockito.*;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @ExtendWith(MockitoExtension.class)
 class AskServiceTest {
@@ -52,10 +80,37 @@ class AskServiceTest {
     private RoomClientImpl roomClient;
 
     @Mock
-    private UserClientImpl userClient;
+    private UserBatchLoader userBatchLoader;
 
     @Mock
-    private MessagingProducer messagingProducer;
+    private RoomOwnership roomOwnership;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RoomStatsService roomStatsService;
+
+    @Spy
+    private RemoteCallExecutor remoteCallExecutor = new RemoteCallExecutor(Runnable::run);
+
+    @Spy
+    private AskListingCache askListingCache = new AskListingCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+
+    @Spy
+    private AskEventEncoder askEventEncoder = new AskEventEncoder(jsonCodec, AskEventEncoder.Format.JSON, false);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private AskService askService;
@@ -65,6 +120,7 @@ class AskServiceTest {
     @BeforeEach
     void setup() {
         ReflectionTestUtils.setField(askService, "askCreatedTopic", "topic1");
+        ReflectionTestUtils.setField(askService, "maxLimit", 100);
 
         mockedAsk = Ask
                 .builder()
@@ -73,6 +129,7 @@ class AskServiceTest {
                 .userId(UUID.randomUUID().toString())
                 .question("Mock question")
                 .createdAt(LocalDateTime.now())
+                .version(0L)
                 .build();
     }
 
@@ -84,6 +141,9 @@ class AskServiceTest {
         @BeforeEach
         void setup() {
             createAskDTO = new CreateAskDTO();
+            lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
         }
 
         @Test
@@ -92,47 +152,253 @@ class AskServiceTest {
             createAskDTO.setRoomId(UUID.randomUUID().toString());
 
             given(roomClient.findById(anyString())).willReturn(new RoomDTO());
-            given(userClient.findById(any())).willReturn(new UserDTO());
-            given(askRepository.save(any(Ask.class))).willReturn(mockedAsk);
-            willDoNothing().given(messagingProducer).sendMessage(anyString(), anyString());
+            given(userBatchLoader.load(any())).willReturn(CompletableFuture.completedFuture(new UserDTO()));
+            given(askRepository.saveAndFlush(any(Ask.class))).willReturn(mockedAsk);
 
             ResponseAskDTO response = askService.create(createAskDTO, mockedAsk.getUserId());
 
             verify(roomClient).findById(createAskDTO.getRoomId());
-            verify(askRepository).save(argThat(arg ->
+            verify(askRepository).saveAndFlush(argThat(arg ->
                     arg.getQuestion().equals(createAskDTO.getQuestion()) &&
                     arg.getRoomId().equals(createAskDTO.getRoomId()) &&
                     arg.getUserId().equals(mockedAsk.getUserId())
             ));
+            verify(outboxEventRepository).save(argThat(event ->
+                    event.getTopic().equals("topic1") &&
+                    event.getMessageKey().equals(mockedAsk.getRoomId()) &&
+                    new String(event.getPayload(), StandardCharsets.UTF_8).contains(mockedAsk.getId())
+            ));
+            verify(eventPublisher).publishEvent(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, response, 0L));
             assertThat(response.getId()).isEqualTo(mockedAsk.getId());
             assertThat(response.getQuestion()).isEqualTo(mockedAsk.getQuestion());
             assertThat(response.getRoomId()).isEqualTo(mockedAsk.getRoomId());
             assertThat(response.getUserId()).isEqualTo(mockedAsk.getUserId());
         }
+
+        @Test
+        void loadUserLoggedWhileRoomIsLoaded() {
+            ReflectionTestUtils.setField(askService, "remoteCallExecutor", new RemoteCallExecutor());
+            createAskDTO.setQuestion("Mock question");
+            createAskDTO.setRoomId(UUID.randomUUID().toString());
+            CountDownLatch userLoggedRequested = new CountDownLatch(1);
+
+            given(roomClient.findById(anyString())).willAnswer(invocation -> {
+                if (!userLoggedRequested.await(5, TimeUnit.SECONDS)) {
+                    throw new AssertionError("User logged should be requested before room response");
+                }
+                return RoomDTO.builder().ownerId(UUID.randomUUID().toString()).build();
+            });
+            given(userBatchLoader.load(anyString())).willAnswer(invocation -> {
+                if (mockedAsk.getUserId().equals(invocation.getArgument(0))) {
+                    userLoggedRequested.countDown();
+                }
+                return CompletableFuture.completedFuture(new UserDTO());
+            });
+            given(askRepository.saveAndFlush(any(Ask.class))).willReturn(mockedAsk);
+
+            ResponseAskDTO response = askService.create(createAskDTO, mockedAsk.getUserId());
+
+            verify(userBatchLoader, times(2)).load(anyString());
+            assertThat(response.getId()).isEqualTo(mockedAsk.getId());
+        }
+
+        @Test
+        void errorWhenRoomNotFound() {
+            createAskDTO.setQuestion("Mock question");
+            createAskDTO.setRoomId(UUID.randomUUID().toString());
+
+            given(roomClient.findById(anyString())).willThrow(new InheritedException(404, "Not found room"));
+
+            InheritedException e = Assertions.assertThrows(InheritedException.class, () -> {
+                askService.create(createAskDTO, mockedAsk.getUserId());
+            });
+
+            verify(askRepository, never()).save(any(Ask.class));
+            assertThat(e.getStatus()).isEqualTo(404);
+            assertThat(e.getMessage()).isEqualTo("Not found room");
+        }
+    }
+
+    @Nested
+    class CreateBatch {
+
+        @BeforeEach
+        void setup() {
+            given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
+        }
+
+        @Test
+        void createValidQuestionsAndReportInvalidOnes() {
+            CreateAskBatchDTO batch = CreateAskBatchDTO.builder()
+                    .roomId(mockedAsk.getRoomId())
+                    .questions(List.of("First batch question", "short", "Third batch question"))
+                    .build();
+
+            given(roomClient.findById(anyString())).willReturn(RoomDTO.builder().ownerId(UUID.randomUUID().toString()).build());
+            given(userBatchLoader.load(anyString())).willReturn(CompletableFuture.completedFuture(new UserDTO()));
+            given(askRepository.saveAll(anyList())).willAnswer(invocation -> {
+                List<Ask> asks = invocation.getArgument(0);
+                asks.forEach(ask -> {
+                    ask.setId(UUID.randomUUID().toString());
+                    ask.setCreatedAt(LocalDateTime.now());
+                });
+                return asks;
+            });
+
+            BatchResponseDTO response = askService.createBatch(batch, mockedAsk.getUserId());
+
+            verify(roomClient).findById(mockedAsk.getRoomId());
+            verify(userBatchLoader, times(2)).load(anyString());
+            verify(askRepository).saveAll(argThat(asks -> ((List<Ask>) asks).size() == 2));
+            verify(outboxEventRepository).saveAll(argThat(events -> ((List<?>) events).size() == 2));
+            verify(eventPublisher, times(2)).publishEvent(any(AskChangedEvent.class));
+            assertThat(response.getSucceeded()).isEqualTo(2);
+            assertThat(response.getFailed()).isEqualTo(1);
+            assertThat(response.getResults().get(0).getAsk().getQuestion()).isEqualTo("First batch question");
+            assertThat(response.getResults().get(1).getError()).startsWith("question:");
+            assertThat(response.getResults().get(2).getAsk().getQuestion()).isEqualTo("Third batch question");
+        }
+    }
+
+    @Nested
+    class AnswerBatch {
+        String ownerId;
+        AskView unanswered;
+        String unknownId;
+
+        @BeforeEach
+        void setup() {
+            ownerId = UUID.randomUUID().toString();
+            unanswered = new AskView(mockedAsk.getId(), mockedAsk.getCreatedAt(), null, mockedAsk.getQuestion(), null,
+                    mockedAsk.getRoomId(), mockedAsk.getUserId(), 0L);
+            unknownId = UUID.randomUUID().toString();
+        }
+
+        @Test
+        void answerFoundAsksAndReportMissingOnes() {
+            AnswerAskBatchDTO batch = AnswerAskBatchDTO.builder()
+                    .roomId(mockedAsk.getRoomId())
+                    .answers(List.of(new AnswerAskItemDTO(unknownId, "First"), new AnswerAskItemDTO(mockedAsk.getId(), "Second")))
+                    .build();
+
+            given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findWindow(any(), any(), anyLong(), anyInt())).willReturn(List.of(unanswered));
+            given(askRepository.answerAll(anyString(), anyMap(), anyMap(), any(LocalDateTime.class))).willReturn(List.of(mockedAsk.getId()));
+
+            BatchResponseDTO response = askService.answerBatch(batch, ownerId);
+
+            verify(roomOwnership).ownerOf(mockedAsk.getRoomId());
+            verify(askRepository).answerAll(eq(mockedAsk.getRoomId()), eq(Map.of(mockedAsk.getId(), "Second")), eq(Map.of(mockedAsk.getId(), 0L)), any(LocalDateTime.class));
+            verify(eventPublisher).publishEvent(argThat((AskChangedEvent event) ->
+                    event.type() == AskChangedEvent.Type.ANSWERED &&
+                    event.previous().getAnswer() == null &&
+                    event.ask().getAnswer().equals("Second")
+            ));
+            assertThat(response.getSucceeded()).isEqualTo(1);
+            assertThat(response.getFailed()).isEqualTo(1);
+            assertThat(response.getResults().get(0).getError()).isEqualTo("Not found ask with id: " + unknownId);
+            assertThat(response.getResults().get(1).getAsk().getVersion()).isEqualTo(1L);
+        }
+
+        @Test
+        void errorWhenRoomBelongsToAnotherUser() {
+            AnswerAskBatchDTO batch = AnswerAskBatchDTO.builder()
+                    .roomId(mockedAsk.getRoomId())
+                    .answers(List.of(new AnswerAskItemDTO(mockedAsk.getId(), "Answer")))
+                    .build();
+
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+
+            Assertions.assertThrows(ForbiddenException.class, () -> askService.answerBatch(batch, UUID.randomUUID().toString()));
+
+            verifyNoInteractions(transactionTemplate, askRepository, eventPublisher);
+        }
+    }
+
+    @Nested
+    class DeleteBatch {
+
+        @Test
+        void deleteFoundAsksAndReportMissingOnes() {
+            String ownerId = UUID.randomUUID().toString();
+            String unknownId = UUID.randomUUID().toString();
+            AskView ask = new AskView(mockedAsk.getId(), mockedAsk.getCreatedAt(), null, mockedAsk.getQuestion(), null,
+                    mockedAsk.getRoomId(), mockedAsk.getUserId(), 0L);
+            DeleteAskBatchDTO batch = DeleteAskBatchDTO.builder()
+                    .roomId(mockedAsk.getRoomId())
+                    .ids(List.of(mockedAsk.getId(), unknownId))
+                    .build();
+
+            given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findWindow(any(), any(), anyLong(), anyInt())).willReturn(List.of(ask));
+            given(askRepository.deleteAll(anyString(), anyMap())).willReturn(List.of(mockedAsk.getId()));
+
+            BatchResponseDTO response = askService.deleteBatch(batch, ownerId);
+
+            verify(roomOwnership).ownerOf(mockedAsk.getRoomId());
+            verify(askRepository).deleteAll(mockedAsk.getRoomId(), Map.of(mockedAsk.getId(), 0L));
+            verify(eventPublisher).publishEvent(argThat((AskChangedEvent event) -> event.type() == AskChangedEvent.Type.DELETED));
+            assertThat(response.getResults().get(0).getAsk().getId()).isEqualTo(mockedAsk.getId());
+            assertThat(response.getResults().get(1).getError()).isEqualTo("Not found ask with id: " + unknownId);
+        }
+
+        @Test
+        void reportAskChangedSinceFoundAsNotDeleted() {
+            String ownerId = UUID.randomUUID().toString();
+            AskView ask = new AskView(mockedAsk.getId(), mockedAsk.getCreatedAt(), null, mockedAsk.getQuestion(), null,
+                    mockedAsk.getRoomId(), mockedAsk.getUserId(), 0L);
+            DeleteAskBatchDTO batch = DeleteAskBatchDTO.builder()
+                    .roomId(mockedAsk.getRoomId())
+                    .ids(List.of(mockedAsk.getId()))
+                    .build();
+
+            given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findWindow(any(), any(), anyLong(), anyInt())).willReturn(List.of(ask));
+            given(askRepository.deleteAll(anyString(), anyMap())).willReturn(List.of());
+
+            BatchResponseDTO response = askService.deleteBatch(batch, ownerId);
+
+            verify(eventPublisher, never()).publishEvent(any(AskChangedEvent.class));
+            assertThat(response.getSucceeded()).isZero();
+            assertThat(response.getResults().get(0).getError()).isEqualTo("Not found ask with id: " + mockedAsk.getId());
+        }
     }
 
     @Nested
     class FindAll {
 
         FilterAskDTO filters;
-        List<Ask> asksFound;
+        List<AskView> asksFound;
 
         @BeforeEach
         void setup() {
             filters = new FilterAskDTO();
-            asksFound = List.of(mockedAsk);
+            asksFound = List.of(view(mockedAsk));
         }
 
         @Test
         void findAll() {
-            given(askRepository.findAll((Specification<Ask>) any(), any(Pageable.class))).willReturn(new PageImpl<>(asksFound));
+            given(askRepository.findWindow(any(), any(Sort.class), anyLong(), anyInt())).willReturn(asksFound);
 
             List<ResponseAskDTO> response = askService.findAll(filters);
 
             verify(askSpecification).withFilters(filters);
-            verify(askRepository).findAll(
+            verify(askRepository).findWindow(
                     eq(askSpecification.withFilters(filters)),
-                    eq(PageRequest.of(0, 20))
+                    eq(Sort.unsorted()),
+                    eq(0L),
+                    eq(20)
             );
             assertThat(response).hasSameSizeAs(asksFound);
         }
@@ -143,19 +409,87 @@ class AskServiceTest {
             filters.setLimit(10);
             filters.setRoomId(roomId);
 
-            given(askRepository.findAll((Specification<Ask>) any(), any(Pageable.class))).willReturn(new PageImpl<>(asksFound));
+            given(askRepository.findWindow(any(), any(Sort.class), anyLong(), anyInt())).willReturn(asksFound);
 
             List<ResponseAskDTO> response = askService.findAll(filters);
 
             verify(askSpecification).withFilters(filters);
-            verify(askRepository).findAll(
+            verify(askRepository).findWindow(
                     eq(askSpecification.withFilters(argThat(f ->
                             f.getRoomId().equals(roomId)
                     ))),
-                    eq(PageRequest.of(0, 10))
+                    eq(Sort.unsorted()),
+                    eq(0L),
+                    eq(10)
             );
             assertThat(response).hasSameSizeAs(asksFound);
         }
+
+        @Test
+        void findAllBySearch() {
+            filters.setSearch(" first question ");
+
+            given(askRepository.search(any(), anyString(), anyLong(), anyInt())).willReturn(asksFound);
+
+            List<ResponseAskDTO> response = askService.findAll(filters);
+
+            verify(askRepository).search(any(), eq("first question"), eq(0L), eq(20));
+            verify(askRepository, never()).findWindow(any(), any(Sort.class), anyLong(), anyInt());
+            assertThat(response).hasSameSizeAs(asksFound);
+        }
+
+        @Test
+        void limitIsBoundedByMaxLimit() {
+            filters.setPage(3);
+            filters.setLimit(1000);
+
+            given(askRepository.findWindow(any(), any(Sort.class), anyLong(), anyInt())).willReturn(asksFound);
+
+            askService.findAll(filters);
+
+            verify(askRepository).findWindow(any(), any(Sort.class), eq(200L), eq(100));
+        }
+
+        @Test
+        void findAllByCursorReturnsNextCursor() {
+            AskView olderAsk = view(Ask.builder().id(UUID.randomUUID().toString()).createdAt(LocalDateTime.now().minusMinutes(1)).build());
+            AskView oldestAsk = view(Ask.builder().id(UUID.randomUUID().toString()).createdAt(LocalDateTime.now().minusMinutes(2)).build());
+            filters.setLimit(2);
+            filters.setCursor("");
+
+            given(askRepository.findWindow(any(), any(Sort.class), anyLong(), anyInt())).willReturn(List.of(view(mockedAsk), olderAsk, oldestAsk));
+
+            PageAskDTO response = askService.findAllByCursor(filters);
+
+            verify(askRepository).findWindow(any(), any(Sort.class), eq(0L), eq(3));
+            verify(askSpecification, never()).after(any());
+            assertThat(response.getAsks()).extracting(ResponseAskDTO::getId).containsExactly(mockedAsk.getId(), olderAsk.id());
+            assertThat(AskCursor.decode(response.getNextCursor())).isEqualTo(AskCursor.of(olderAsk));
+        }
+
+        @Test
+        void findAllByCursorOnLastPage() {
+            AskCursor cursor = AskCursor.of(view(mockedAsk));
+            filters.setCursor(cursor.encode());
+
+            given(askSpecification.withFilters(filters)).willReturn((root, query, builder) -> null);
+            given(askRepository.findWindow(any(), any(Sort.class), anyLong(), anyInt())).willReturn(asksFound);
+
+            PageAskDTO response = askService.findAllByCursor(filters);
+
+            verify(askSpecification).after(cursor);
+            assertThat(response.getAsks()).hasSameSizeAs(asksFound);
+            assertThat(response.getNextCursor()).isNull();
+        }
+
+        @Test
+        void errorWhenCursorIsNotValid() {
+            filters.setCursor("not a cursor");
+
+            Assertions.assertThrows(BadRequestException.class, () -> askService.findAllByCursor(filters));
+
+            verify(askRepository, never()).findWindow(any(), any(Sort.class), anyLong(), anyInt());
+        }
     }
 
     @Nested
@@ -170,11 +504,12 @@ class AskServiceTest {
 
         @Test
         void findById() {
-            given(askRepository.findById(anyString())).willReturn(Optional.of(mockedAsk));
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
 
             ResponseAskDTO response = askService.findById(idToFind);
 
-            verify(askRepository).findById(idToFind);
+            verify(askRepository).findViewById(idToFind);
+            verify(askRepository, never()).findById(anyString());
             assertThat(response.getId()).isEqualTo(mockedAsk.getId());
             assertThat(response.getQuestion()).isEqualTo(mockedAsk.getQuestion());
             assertThat(response.getRoomId()).isEqualTo(mockedAsk.getRoomId());
@@ -183,14 +518,14 @@ class AskServiceTest {
 
         @Test
         void errorWhenNotFoundAskById() {
-            given(askRepository.findById(anyString())).willReturn(Optional.empty());
+            given(askRepository.findViewById(anyString())).willReturn(Optional.empty());
 
             NotFoundException e = Assertions.assertThrows(NotFoundException.class, () -> {
                         askService.findById(idToFind);
                     }
             );
 
-            verify(askRepository).findById(idToFind);
+            verify(askRepository).findViewById(idToFind);
             assertThat(e.getMessage()).contains("Not found ask with id");
         }
     }
@@ -199,52 +534,75 @@ class AskServiceTest {
     class Answer {
         String idToUpdate;
         AnswerAskDTO answerAskDTO;
-        Ask askUpdated;
+        String ownerId;
 
         @BeforeEach
         void setup() {
             idToUpdate = mockedAsk.getId();
             answerAskDTO = new AnswerAskDTO("Response ask");
-            askUpdated = Ask
-                    .builder()
-                    .id(mockedAsk.getId())
-                    .roomId(mockedAsk.getRoomId())
-                    .userId(mockedAsk.getUserId())
-                    .question(mockedAsk.getQuestion())
-                    .createdAt(mockedAsk.getCreatedAt())
-                    .answer("Response ask")
-                    .build();
+            ownerId = UUID.randomUUID().toString();
+            lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
         }
 
         @Test
         void answerAsk() {
-            RoomDTO roomDTO = RoomDTO.builder()
-                    .id(mockedAsk.getRoomId())
-                    .ownerId(UUID.randomUUID().toString())
-                    .build();
-            given(askRepository.findById(anyString())).willReturn(Optional.of(mockedAsk));
-            given(askRepository.save(any(Ask.class))).willReturn(askUpdated);
-            given(roomClient.findById(anyString())).willReturn(roomDTO);
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.updateAnswerIfUnchanged(anyString(), anyLong(), anyString(), any(LocalDateTime.class))).willReturn(1);
+            given(roomStatsService.epochOf(mockedAsk.getRoomId())).willReturn(3L);
 
-            ResponseAskDTO response = askService.answer(idToUpdate, answerAskDTO, roomDTO.getOwnerId());
+            ResponseAskDTO response = askService.answer(idToUpdate, answerAskDTO, ownerId, null);
 
-            verify(askRepository).findById(idToUpdate);
-            verify(askRepository).save(argThat(dto -> dto.getId().equals(idToUpdate) && dto.getAnswer().equals(answerAskDTO.getAnswer())));
+            verify(askRepository).findViewById(idToUpdate);
+            verify(askRepository).updateAnswerIfUnchanged(eq(idToUpdate), eq(0L), eq(answerAskDTO.getAnswer()), any(LocalDateTime.class));
+            verify(askRepository, never()).save(any(Ask.class));
+            verify(eventPublisher).publishEvent(argThat((AskChangedEvent event) ->
+                    event.type() == AskChangedEvent.Type.ANSWERED &&
+                    event.previous().getAnswer() == null &&
+                    event.ask().equals(response) &&
+                    event.statsEpoch() == 3L
+            ));
             assertThat(response.getId()).isEqualTo(idToUpdate);
-            assertThat(response.getAnswer()).isEqualTo(mockedAsk.getAnswer());
+            assertThat(response.getAnswer()).isEqualTo(answerAskDTO.getAnswer());
+            assertThat(response.getVersion()).isEqualTo(1L);
+        }
+
+        @Test
+        void errorWhenAskChangedSinceRead() {
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.updateAnswerIfUnchanged(anyString(), anyLong(), anyString(), any(LocalDateTime.class))).willReturn(0);
+            given(askRepository.existsById(idToUpdate)).willReturn(true);
+
+            Assertions.assertThrows(ConflictException.class, () -> askService.answer(idToUpdate, answerAskDTO, ownerId, null));
+
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        void errorWhenExpectedVersionIsNotCurrent() {
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+
+            ConflictException e = Assertions.assertThrows(ConflictException.class, () -> askService.answer(idToUpdate, answerAskDTO, ownerId, 3L));
+
+            verify(askRepository, never()).updateAnswerIfUnchanged(anyString(), anyLong(), anyString(), any(LocalDateTime.class));
+            assertThat(e.getMessage()).contains("current version is 0");
         }
 
         @Test
         void errorWhenNotFoundAskById() {
-            given(askRepository.findById(anyString())).willReturn(Optional.empty());
+            given(askRepository.findViewById(anyString())).willReturn(Optional.empty());
 
             NotFoundException e = Assertions.assertThrows(NotFoundException.class, () -> {
-                        askService.answer(idToUpdate, answerAskDTO, mockedAsk.getUserId());
+                        askService.answer(idToUpdate, answerAskDTO, mockedAsk.getUserId(), null);
                     }
             );
 
-            verify(askRepository).findById(idToUpdate);
-            verify(askRepository, never()).save(any(Ask.class));
+            verify(askRepository).findViewById(idToUpdate);
+            verify(askRepository, never()).updateAnswerIfUnchanged(anyString(), anyLong(), anyString(), any(LocalDateTime.class));
             assertThat(e.getMessage()).contains("Not found ask with id");
         }
     }
@@ -255,37 +613,54 @@ class AskServiceTest {
 
         @BeforeEach
         void setup(){
-            id = UUID.randomUUID().toString();
+            id = mockedAsk.getId();
+            lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
         }
 
         @Test
         void delete(){
-            RoomDTO roomDTO = RoomDTO.builder()
-                    .id(mockedAsk.getRoomId())
-                    .ownerId(UUID.randomUUID().toString())
-                    .build();
+            String ownerId = UUID.randomUUID().toString();
 
-            given(roomClient.findById(anyString())).willReturn(roomDTO);
-            given(askRepository.findById(anyString())).willReturn(Optional.of(mockedAsk));
-            willDoNothing().given(askRepository).delete(any(Ask.class));
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(askRepository.deleteIfUnchanged(anyString(), anyLong())).willReturn(1);
 
-            SimpleResponseDTO response = askService.delete(id, roomDTO.getOwnerId());
+            SimpleResponseDTO response = askService.delete(id, ownerId, null);
 
-            verify(askRepository).findById(id);
-            verify(askRepository).delete(mockedAsk);
+            verify(askRepository).findViewById(id);
+            verify(askRepository).deleteIfUnchanged(id, 0L);
+            verify(eventPublisher).publishEvent(argThat((AskChangedEvent event) ->
+                    event.type() == AskChangedEvent.Type.DELETED && event.roomId().equals(mockedAsk.getRoomId())
+            ));
             assertThat(response.isOk()).isTrue();
         }
 
+        @Test
+        void errorWhenDeletedSinceRead(){
+            String ownerId = UUID.randomUUID().toString();
+
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(askRepository.deleteIfUnchanged(anyString(), anyLong())).willReturn(0);
+            given(askRepository.existsById(id)).willReturn(false);
+
+            Assertions.assertThrows(NotFoundException.class, () -> askService.delete(id, ownerId, null));
+
+            verifyNoInteractions(eventPublisher);
+        }
+
         @Test
         void errorWhenNotFoundAskById(){
-            given(askRepository.findById(anyString())).willReturn(Optional.empty());
+            given(askRepository.findViewById(anyString())).willReturn(Optional.empty());
 
             NotFoundException e = Assertions.assertThrows(NotFoundException.class, ()->{
-                askService.delete(id, mockedAsk.getUserId());
+                askService.delete(id, mockedAsk.getUserId(), null);
             });
 
-            verify(askRepository).findById(id);
-            verify(askRepository, never()).delete(any(Ask.class));
+            verify(askRepository).findViewById(id);
+            verify(askRepository, never()).deleteIfUnchanged(anyString(), anyLong());
             assertThat(e.getMessage()).contains("Not found ask with id");
         }
     }
@@ -293,54 +668,50 @@ class AskServiceTest {
     @Nested
     class DeleteAnswer {
         String idToDeleteAnswer;
-        Ask askUpdated;
 
         @BeforeEach
         void setup(){
             idToDeleteAnswer = mockedAsk.getId();
             mockedAsk.setAnswer("Some answer");
-
-            askUpdated = Ask
-                    .builder()
-                    .id(mockedAsk.getId())
-                    .roomId(mockedAsk.getRoomId())
-                    .userId(mockedAsk.getUserId())
-                    .question(mockedAsk.getQuestion())
-                    .createdAt(mockedAsk.getCreatedAt())
-                    .answer(null)
-                    .build();
+            lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+            );
         }
 
         @Test
         void deleteAnswer(){
-            RoomDTO roomDTO = RoomDTO.builder()
-                    .id(mockedAsk.getRoomId())
-                    .ownerId(UUID.randomUUID().toString())
-                    .build();
+            String ownerId = UUID.randomUUID().toString();
 
-            given(roomClient.findById(anyString())).willReturn(roomDTO);
-            given(askRepository.findById(anyString())).willReturn(Optional.of(mockedAsk));
-            given(askRepository.save(any(Ask.class))).willReturn(askUpdated);
+            given(roomOwnership.ownerOf(anyString())).willReturn(ownerId);
+            given(askRepository.findViewById(anyString())).willReturn(Optional.of(view(mockedAsk)));
+            given(askRepository.updateAnswerIfUnchanged(anyString(), anyLong(), isNull(), any(LocalDateTime.class))).willReturn(1);
 
-            ResponseAskDTO response = askService.deleteAnswer(idToDeleteAnswer, roomDTO.getOwnerId());
+            ResponseAskDTO response = askService.deleteAnswer(idToDeleteAnswer, ownerId, null);
 
-            verify(askRepository).findById(idToDeleteAnswer);
-            verify(askRepository).save(argThat( ask -> ask.getAnswer() == null));
+            verify(askRepository).findViewById(idToDeleteAnswer);
+            verify(askRepository).updateAnswerIfUnchanged(eq(idToDeleteAnswer), eq(0L), isNull(), any(LocalDateTime.class));
+            verify(eventPublisher).publishEvent(argThat((AskChangedEvent event) ->
+                    event.type() == AskChangedEvent.Type.ANSWER_DELETED && event.previous().getAnswer().equals("Some answer")
+            ));
             assertThat(response.getId()).isEqualTo(idToDeleteAnswer);
             assertThat(response.getAnswer()).isNull();
         }
 
         @Test
         void errorWhenNotFoundAskById(){
-            given(askRepository.findById(anyString())).willReturn(Optional.empty());
+            given(askRepository.findViewById(anyString())).willReturn(Optional.empty());
 
             NotFoundException e = Assertions.assertThrows(NotFoundException.class, ()-> {
-                askService.deleteAnswer(idToDeleteAnswer, mockedAsk.getUserId());
+                askService.deleteAnswer(idToDeleteAnswer, mockedAsk.getUserId(), null);
             });
 
-            verify(askRepository).findById(idToDeleteAnswer);
-            verify(askRepository, never()).save(any(Ask.class));
+            verify(askRepository).findViewById(idToDeleteAnswer);
+            verify(askRepository, never()).updateAnswerIfUnchanged(anyString(), anyLong(), any(), any(LocalDateTime.class));
             assertThat(e.getMessage()).contains("Not found ask with id");
         }
     }
-}
\ No newline at end of file
+
+    private static AskView view(Ask ask) {
+        return new AskView(ask.getId(), ask.getCreatedAt(), ask.getRespondedAt(), ask.getQuestion(), ask.getAnswer(), ask.getRoomId(), ask.getUserId(), ask.getVersion());
+    }
+}
@@ -0,0 +1,147 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AskStreamHubTest {
+
+    AskStreamHub askStreamHub;
+    String roomId;
+
+    @BeforeEach
+    void setup() {
+        askStreamHub = new AskStreamHub(new JsonCodec(new ObjectMapper()), 4, Duration.ofMillis(50), Duration.ofMinutes(1), new SimpleMeterRegistry());
+        roomId = UUID.randomUUID().toString();
+    }
+
+    @AfterEach
+    void cleanup() {
+        askStreamHub.shutdown();
+    }
+
+    @Test
+    void fanOutToEverySubscriberOfTheRoom() {
+        List<RecordingEmitter> emitters = IntStream.range(0, 5_000).mapToObj(i -> new RecordingEmitter()).toList();
+        RecordingEmitter otherRoom = new RecordingEmitter();
+        emitters.forEach(emitter -> askStreamHub.subscribe(roomId, emitter));
+        askStreamHub.subscribe(UUID.randomUUID().toString(), otherRoom);
+
+        askStreamHub.onAskChanged(created(roomId));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> emitters.stream().allMatch(emitter -> emitter.contains("event:created")));
+        assertThat(otherRoom.contains("event:created")).isFalse();
+        assertThat(askStreamHub.subscriberCount()).isEqualTo(5_001);
+    }
+
+    @Test
+    void blockedWritesNeverDelayOtherSubscribers() {
+        // More blocked subscribers than a pool of platform senders would have, on platform request threads
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecordingEmitter> blocked = IntStream.range(0, 16).mapToObj(i -> new RecordingEmitter(release)).toList();
+        RecordingEmitter fast = new RecordingEmitter();
+        blocked.forEach(emitter -> askStreamHub.subscribe(roomId, emitter));
+        askStreamHub.subscribe(roomId, fast);
+
+        askStreamHub.onAskChanged(created(roomId));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> fast.contains("event:created"));
+        assertThat(blocked).noneMatch(emitter -> emitter.contains("event:created"));
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> blocked.stream().allMatch(emitter -> emitter.contains("event:created")));
+    }
+
+    @Test
+    void evictSlowSubscriber() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter();
+        askStreamHub.subscribe(roomId, slow);
+        askStreamHub.subscribe(roomId, fast);
+
+        for (int i = 1; i <= 10; i++) {
+            askStreamHub.onAskChanged(created(roomId));
+            long sent = i;
+            await().atMost(Duration.ofSeconds(5)).until(() -> fast.sent.stream().filter(sse -> sse.contains("event:created")).count() == sent);
+        }
+        slow.release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> slow.completed);
+        assertThat(askStreamHub.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendHeartbeats() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        askStreamHub.subscribe(roomId, emitter);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.contains(":heartbeat"));
+    }
+
+    AskChangedEvent created(String roomId) {
+        ResponseAskDTO ask = ResponseAskDTO.builder()
+                .id(UUID.randomUUID().toString())
+                .question("Question")
+                .roomId(roomId)
+                .userId(UUID.randomUUID().toString())
+                .build();
+        return new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L);
+    }
+
+    /**
+     * Keep what would be written to the connection, optionally blocking the first write like a slow client
+     */
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        volatile boolean completed;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder sse = new StringBuilder();
+            items.forEach(item -> sse.append(item.getData()));
+            sent.add(sse.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        boolean contains(String text) {
+            return sent.stream().anyMatch(sse -> sse.contains(text));
+        }
+    }
+}
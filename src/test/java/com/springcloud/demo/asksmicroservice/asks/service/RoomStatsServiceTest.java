@@ -0,0 +1,228 @@
+package com.springcloud.demo.asksmicroservice.asks.service;
+
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import com.springcloud.demo.asksmicroservice.asks.dto.RoomStatsDTO;
+import com.springcloud.demo.asksmicroservice.asks.event.AskChangedEvent;
+import com.springcloud.demo.asksmicroservice.asks.model.RoomStats;
+import com.springcloud.demo.asksmicroservice.asks.repository.RoomStatsRepository;
+import com.springcloud.demo.asksmicroservice.messaging.model.RelayLock;
+import com.springcloud.demo.asksmicroservice.messaging.repository.RelayLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomStatsServiceTest {
+
+    @Mock
+    private RoomStatsRepository roomStatsRepository;
+
+    @Mock
+    private RelayLockRepository relayLockRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private RoomStatsService roomStatsService;
+
+    String roomId;
+    ResponseAskDTO ask;
+    ResponseAskDTO answered;
+
+    @BeforeEach
+    void setup() {
+        roomId = UUID.randomUUID().toString();
+        LocalDateTime createdAt = LocalDateTime.now();
+        ask = ask(createdAt, null, null);
+        answered = ask(createdAt, createdAt.plusSeconds(90), "Answer");
+    }
+
+    @Test
+    void addPendingChangesToStoredStats() {
+        given(roomStatsRepository.findById(roomId)).willReturn(Optional.of(new RoomStats(roomId, 10L, 4L, 400L)));
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L));
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWERED, ask, answered, 0L));
+
+        RoomStatsDTO stats = roomStatsService.findByRoomId(roomId);
+
+        assertThat(stats.getTotal()).isEqualTo(11);
+        assertThat(stats.getAnswered()).isEqualTo(5);
+        assertThat(stats.getUnanswered()).isEqualTo(6);
+        assertThat(stats.getAverageAnswerSeconds()).isEqualTo(98.0);
+    }
+
+    @Test
+    void flushNetChangesOfEachRoom() {
+        willAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+        given(roomStatsRepository.lockByRoomId(roomId)).willReturn(Optional.of(new RoomStats(roomId, 10L, 4L, 400L)));
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L));
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWERED, ask, answered, 0L));
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWER_DELETED, answered, ask, 0L));
+        roomStatsService.flush();
+        // drained rooms are removed, nothing is left for the second flush
+        roomStatsService.flush();
+
+        verify(roomStatsRepository).lockByRoomId(roomId);
+        verify(roomStatsRepository).addToRoom(roomId, 1, 0, 0);
+        verifyNoMoreInteractions(roomStatsRepository);
+    }
+
+    @Test
+    void deletedAnsweredAskRemovesItsAnswerTime() {
+        willAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.DELETED, answered, answered, 0L));
+        roomStatsService.flush();
+
+        ArgumentCaptor<RoomStats> stats = ArgumentCaptor.forClass(RoomStats.class);
+        verify(roomStatsRepository).saveAndFlush(stats.capture());
+        verify(roomStatsRepository, never()).addToRoom(anyString(), anyLong(), anyLong(), anyLong());
+        assertThat(stats.getValue().getTotal()).isEqualTo(-1);
+        assertThat(stats.getValue().getAnswered()).isEqualTo(-1);
+        assertThat(stats.getValue().getAnswerSeconds()).isEqualTo(-90);
+    }
+
+    @Test
+    void dropChangesOfEpochOlderThanStored() {
+        willAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+        given(roomStatsRepository.lockByRoomId(roomId)).willReturn(Optional.of(new RoomStats(roomId, 1L, 0L, 0L, 2L)));
+
+        // written before the last reconciliation read the asks
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 1L));
+        roomStatsService.flush();
+
+        verify(roomStatsRepository, never()).addToRoom(anyString(), anyLong(), anyLong(), anyLong());
+        verify(roomStatsRepository, never()).saveAndFlush(any(RoomStats.class));
+    }
+
+    @Test
+    void applyChangesOfStoredEpoch() {
+        willAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+        given(roomStatsRepository.lockByRoomId(roomId)).willReturn(Optional.of(new RoomStats(roomId, 1L, 0L, 0L, 2L)));
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 1L));
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.ANSWERED, ask, answered, 2L));
+        roomStatsService.flush();
+
+        verify(roomStatsRepository).addToRoom(roomId, 0, 1, 90);
+    }
+
+    @Test
+    void pendingChangesOfOlderEpochAreNotCounted() {
+        given(roomStatsRepository.findById(roomId)).willReturn(Optional.of(new RoomStats(roomId, 1L, 0L, 0L, 1L)));
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L));
+
+        assertThat(roomStatsService.findByRoomId(roomId).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileEachRoomInItsOwnEpoch() {
+        willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .given(transactionTemplate).execute(any());
+        willAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+        String emptiedRoomId = UUID.randomUUID().toString();
+        String newRoomId = UUID.randomUUID().toString();
+        RoomStats emptied = new RoomStats(emptiedRoomId, 3L, 1L, 60L, 4L);
+        RoomStats stored = new RoomStats(roomId, 1L, 0L, 0L, 1L);
+        RoomStats created = new RoomStats(newRoomId, 0L, 0L, 0L, 0L);
+        RelayLock claim = RelayLock.builder().name(RoomStatsService.RECONCILE_LOCK_NAME).build();
+        given(relayLockRepository.lockByName(RoomStatsService.RECONCILE_LOCK_NAME)).willReturn(Optional.of(claim));
+        given(roomStatsRepository.findRoomIds()).willReturn(List.of(emptiedRoomId, roomId));
+        given(roomStatsRepository.findRoomIdsOfAsks()).willReturn(List.of(roomId, newRoomId));
+        given(roomStatsRepository.lockByRoomId(emptiedRoomId)).willReturn(Optional.of(emptied));
+        given(roomStatsRepository.lockByRoomId(roomId)).willReturn(Optional.of(stored));
+        given(roomStatsRepository.lockByRoomId(newRoomId)).willReturn(Optional.of(created));
+        given(roomStatsRepository.computeFromAsks(emptiedRoomId)).willReturn(Optional.empty());
+        given(roomStatsRepository.computeFromAsks(roomId)).willReturn(Optional.of(new RoomStats(roomId, 2L, 1L, 90L)));
+        given(roomStatsRepository.computeFromAsks(newRoomId)).willReturn(Optional.of(new RoomStats(newRoomId, 1L, 0L, 0L)));
+
+        roomStatsService.reconcile();
+
+        assertThat(stored.getTotal()).isEqualTo(2);
+        assertThat(stored.getAnswerSeconds()).isEqualTo(90);
+        assertThat(stored.getEpoch()).isEqualTo(2);
+        assertThat(emptied.getTotal()).isZero();
+        assertThat(emptied.getAnswered()).isZero();
+        assertThat(emptied.getEpoch()).isEqualTo(5);
+        // the row of a new room is inserted first so that it is locked like the others
+        verify(roomStatsRepository).insertEmpty(newRoomId);
+        verify(roomStatsRepository, never()).insertEmpty(roomId);
+        assertThat(created.getTotal()).isEqualTo(1);
+        assertThat(created.getEpoch()).isEqualTo(1);
+        // released for the next reconciliation, whichever instance runs it
+        assertThat(claim.getLockedAt()).isNull();
+    }
+
+    @Test
+    void skipReconciliationClaimedRecently() {
+        willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .given(transactionTemplate).execute(any());
+        ReflectionTestUtils.setField(roomStatsService, "reconcileDelayMs", 60_000L);
+        given(relayLockRepository.lockByName(RoomStatsService.RECONCILE_LOCK_NAME))
+                .willReturn(Optional.of(RelayLock.builder().name(RoomStatsService.RECONCILE_LOCK_NAME).lockedAt(LocalDateTime.now().minusSeconds(5)).build()));
+
+        roomStatsService.reconcile();
+
+        verifyNoInteractions(roomStatsRepository);
+    }
+
+    @Test
+    void keepChangesWhenFlushFails() {
+        willThrow(new DataIntegrityViolationException("duplicate")).given(transactionTemplate).executeWithoutResult(any());
+        given(roomStatsRepository.findById(roomId)).willReturn(Optional.empty());
+
+        roomStatsService.onAskChanged(new AskChangedEvent(AskChangedEvent.Type.CREATED, null, ask, 0L));
+        roomStatsService.flush();
+
+        assertThat(roomStatsService.findByRoomId(roomId).getTotal()).isEqualTo(1);
+    }
+
+    ResponseAskDTO ask(LocalDateTime createdAt, LocalDateTime respondedAt, String answer) {
+        return ResponseAskDTO.builder()
+                .id(UUID.randomUUID().toString())
+                .roomId(roomId)
+                .userId(UUID.randomUUID().toString())
+                .question("Question")
+                .answer(answer)
+                .createdAt(createdAt.toString())
+                .respondedAt(respondedAt == null ? null : respondedAt.toString())
+                .build();
+    }
+}
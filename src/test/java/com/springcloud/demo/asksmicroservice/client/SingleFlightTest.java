@@ -0,0 +1,101 @@
+package com.springcloud.demo.asksmicroservice.client;
+
+import com.springcloud.demo.asksmicroservice.exceptions.InheritedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight;
+    ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        singleFlight = new SingleFlight<>("test");
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Test
+    void shareResultWithConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("id", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "result";
+        }), executor);
+        waitUntilInFlight(calls);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("id", () -> {
+            calls.incrementAndGet();
+            return "other result";
+        }), executor);
+        waitUntilCoalesced();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.coalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shareExceptionWithConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("id", () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new InheritedException(404, "Not found");
+        }), executor);
+        waitUntilInFlight(calls);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("id", () -> "result"), executor);
+        waitUntilCoalesced();
+        release.countDown();
+
+        Exception e = Assertions.assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause()).isInstanceOf(InheritedException.class);
+        Assertions.assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void executeAgainWhenPreviousCallFinished() {
+        assertThat(singleFlight.execute("id", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.execute("id", () -> "second")).isEqualTo("second");
+        assertThat(singleFlight.coalescedCount()).isZero();
+    }
+
+    private void waitUntilInFlight(AtomicInteger calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void waitUntilCoalesced() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.coalescedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
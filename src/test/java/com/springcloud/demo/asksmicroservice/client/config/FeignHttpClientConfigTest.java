@@ -0,0 +1,138 @@
+package com.springcloud.demo.asksmicroservice.client.config;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Calls a local stub of rooms-ms from concurrent callers, counting the connections it accepts by their remote port
+ */
+class FeignHttpClientConfigTest {
+
+    static final int CALLERS = 16;
+    static final int CALLS = 400;
+    static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+
+    HttpServer stub;
+    ExecutorService stubWorkers;
+    Set<Integer> connections;
+    ExecutorService callers;
+
+    @BeforeEach
+    void setup() throws Exception {
+        connections = ConcurrentHashMap.newKeySet();
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubWorkers = Executors.newFixedThreadPool(CALLERS);
+        stub.setExecutor(stubWorkers);
+        stub.createContext("/api/rooms", exchange -> {
+            connections.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void cleanup() {
+        callers.shutdownNow();
+        stub.stop(0);
+        stubWorkers.shutdownNow();
+    }
+
+    @Test
+    void reuseTheConnectionsOfThePool() throws Exception {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(MAX_CONNECTIONS_PER_ROUTE * 2)
+                .build();
+
+        try (CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(pool).build()) {
+            callConcurrently(new ApacheHttp5Client(httpClient));
+
+            assertThat(connections).hasSizeLessThanOrEqualTo(MAX_CONNECTIONS_PER_ROUTE);
+        }
+    }
+
+    @Test
+    void defaultClientOpensMoreConnectionsThanThePool() throws Exception {
+        callConcurrently(new Client.Default(null, null));
+
+        assertThat(connections).hasSizeGreaterThan(MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    @Test
+    void bindPoolMetrics() {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(MAX_CONNECTIONS_PER_ROUTE * 2)
+                .build();
+        @SuppressWarnings("unchecked")
+        ObjectProvider<HttpClientConnectionManager> connectionManager = mock(ObjectProvider.class);
+        given(connectionManager.getIfAvailable()).willReturn(pool);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new FeignHttpClientConfig().feignConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", FeignHttpClientConfig.POOL_NAME).gauge().value())
+                .isEqualTo(MAX_CONNECTIONS_PER_ROUTE * 2);
+        assertThat(registry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value())
+                .isEqualTo(MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    @Test
+    void bindNothingWithoutPool() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<HttpClientConnectionManager> connectionManager = mock(ObjectProvider.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new FeignHttpClientConfig().feignConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    void callConcurrently(Client client) throws Exception {
+        StubRooms rooms = Feign.builder()
+                .client(client)
+                .target(StubRooms.class, "http://127.0.0.1:" + stub.getAddress().getPort());
+
+        for (Future<?> call : IntStream.range(0, CALLS).mapToObj(i -> callers.submit(rooms::findById)).toList()) {
+            call.get();
+        }
+    }
+
+    interface StubRooms {
+        @RequestLine("GET /api/rooms/1")
+        String findById();
+    }
+}
@@ -2,20 +2,26 @@ package com.springcloud.demo.asksmicroservice.client.rooms;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.client.SingleFlight;
 import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import com.springcloud.demo.asksmicroservice.client.users.UserDTO;
 import com.springcloud.demo.asksmicroservice.exceptions.ForbiddenException;
 import com.springcloud.demo.asksmicroservice.exceptions.InheritedException;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
 import feign.FeignException;
 import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
 
@@ -29,6 +35,15 @@ class RoomClientImplTest {
     @Mock
     private RoomClient roomClient;
 
+    @Spy
+    private RoomCache roomCache = new RoomCache(100, Duration.ofMinutes(1), Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Spy
+    private SingleFlight<String, RoomDTO> roomsInFlight = new SingleFlight<>("rooms-ms");
+
+    @Spy
+    private JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+
     @InjectMocks
     private RoomClientImpl roomClientImpl;
 
@@ -46,6 +61,36 @@ class RoomClientImplTest {
 
             assertThat(result).isEqualTo(roomDTO);
         }
+
+        @Test
+        void findRoomFromCache() {
+            RoomDTO roomDTO = RoomDTO.builder()
+                    .id(UUID.randomUUID().toString())
+                    .build();
+
+            given(roomClient.findById(anyString())).willReturn(roomDTO);
+
+            RoomDTO first = roomClientImpl.findById(roomDTO.getId());
+            first.setOwner(new UserDTO());
+            RoomDTO second = roomClientImpl.findById(roomDTO.getId());
+
+            verify(roomClient, times(1)).findById(roomDTO.getId());
+            assertThat(second.getId()).isEqualTo(roomDTO.getId());
+            assertThat(second.getOwner()).isNull();
+        }
+
+        @Test
+        void cacheRoomNotFound() {
+            String id = UUID.randomUUID().toString();
+            FeignException.NotFound notFound = new FeignException.NotFound("Not found room", mock(Request.class), null, null);
+
+            given(roomClient.findById(anyString())).willThrow(notFound);
+
+            Assertions.assertThrows(FeignException.NotFound.class, () -> roomClientImpl.findById(id));
+            Assertions.assertThrows(FeignException.NotFound.class, () -> roomClientImpl.findById(id));
+
+            verify(roomClient, times(1)).findById(id);
+        }
     }
 
     @Nested
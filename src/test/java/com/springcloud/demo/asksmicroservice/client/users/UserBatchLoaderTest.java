@@ -0,0 +1,104 @@
+package com.springcloud.demo.asksmicroservice.client.users;
+
+import com.springcloud.demo.asksmicroservice.client.RemoteCallExecutor;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+class UserBatchLoaderTest {
+
+    UserClientImpl userClient;
+    UserBatchLoader userBatchLoader;
+
+    @BeforeEach
+    void setup() {
+        userClient = mock(UserClientImpl.class);
+        userBatchLoader = new UserBatchLoader(userClient, new RemoteCallExecutor(), Duration.ofMillis(50), 100);
+
+        // Stub users-ms: returns every requested user
+        given(userClient.findAllByIds(anyList())).willAnswer(invocation -> {
+            List<String> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> UserDTO.builder().id(UUID.fromString(id)).build()).toList();
+        });
+    }
+
+    @Test
+    void loadUsersWithOneRequest() {
+        List<String> ids = randomIds(50);
+
+        Map<String, UserDTO> users = userBatchLoader.loadAll(ids);
+
+        verify(userClient, times(1)).findAllByIds(anyList());
+        assertThat(users).hasSize(50);
+        ids.forEach(id -> assertThat(users.get(id).getId().toString()).isEqualTo(id));
+    }
+
+    @Test
+    void splitRequestsByMaxBatchSize() {
+        List<String> ids = randomIds(250);
+
+        Map<String, UserDTO> users = userBatchLoader.loadAll(ids);
+
+        verify(userClient, times(3)).findAllByIds(argThat(batch -> batch.size() <= 100));
+        assertThat(users).hasSize(250);
+    }
+
+    @Test
+    void joinBatchAlreadySent() throws Exception {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(userClient.findAllByIds(anyList())).willAnswer(invocation -> {
+            sent.countDown();
+            release.await();
+            List<String> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> UserDTO.builder().id(UUID.fromString(id)).build()).toList();
+        });
+        String id = UUID.randomUUID().toString();
+
+        CompletableFuture<UserDTO> first = userBatchLoader.load(id);
+        sent.await();
+        CompletableFuture<UserDTO> second = userBatchLoader.load(id);
+        release.countDown();
+
+        assertThat(second).isSameAs(first);
+        assertThat(RemoteCallExecutor.await(second).getId().toString()).isEqualTo(id);
+        assertThat(userBatchLoader.coalescedCount()).isEqualTo(1);
+        verify(userClient, times(1)).findAllByIds(anyList());
+    }
+
+    @Test
+    void loadAgainOnceBatchCompleted() {
+        String id = UUID.randomUUID().toString();
+
+        RemoteCallExecutor.await(userBatchLoader.load(id));
+        RemoteCallExecutor.await(userBatchLoader.load(id));
+
+        verify(userClient, times(2)).findAllByIds(List.of(id));
+    }
+
+    @Test
+    void errorWhenUserNotReturned() {
+        given(userClient.findAllByIds(anyList())).willReturn(List.of());
+
+        CompletableFuture<UserDTO> user = userBatchLoader.load(UUID.randomUUID().toString());
+
+        NotFoundException e = Assertions.assertThrows(NotFoundException.class, () -> RemoteCallExecutor.await(user));
+        assertThat(e.getMessage()).contains("Not found user with id");
+    }
+
+    private List<String> randomIds(int size) {
+        return IntStream.range(0, size).mapToObj(i -> UUID.randomUUID().toString()).toList();
+    }
+}
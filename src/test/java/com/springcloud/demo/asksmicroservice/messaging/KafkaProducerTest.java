@@ -0,0 +1,79 @@
+package com.springcloud.demo.asksmicroservice.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void recordAcknowledgedSends() {
+        KafkaProducer kafkaProducer = new KafkaProducer(kafkaTemplate, meterRegistry, 10, KafkaProducer.OverflowPolicy.BLOCK, Duration.ofSeconds(1));
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        CompletableFuture<Void> send = kafkaProducer.sendMessage("topic", "key", "message".getBytes(), Map.of());
+
+        assertThat(send).isCompleted();
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+                record.key().equals("key") && record.topic().equals("topic")
+        ));
+        assertThat(meterRegistry.get("messaging.send.ack").tag("result", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shedSendsWhenTooManyInFlight() {
+        KafkaProducer kafkaProducer = new KafkaProducer(kafkaTemplate, meterRegistry, 1, KafkaProducer.OverflowPolicy.SHED, Duration.ofSeconds(1));
+        CompletableFuture<SendResult<String, byte[]>> pendingAck = new CompletableFuture<>();
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(pendingAck)
+                .willReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        CompletableFuture<Void> first = kafkaProducer.sendMessage("topic", "key", "first".getBytes(), Map.of());
+        CompletableFuture<Void> second = kafkaProducer.sendMessage("topic", "key", "second".getBytes(), Map.of());
+
+        assertThat(second).isCompletedExceptionally();
+        assertThat(meterRegistry.get("messaging.send.shed").counter().count()).isEqualTo(1);
+
+        pendingAck.complete(mock(SendResult.class));
+        CompletableFuture<Void> third = kafkaProducer.sendMessage("topic", "key", "third".getBytes(), Map.of());
+
+        assertThat(first).isCompleted();
+        assertThat(third).isCompleted();
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void recordFailedSends() {
+        KafkaProducer kafkaProducer = new KafkaProducer(kafkaTemplate, meterRegistry, 10, KafkaProducer.OverflowPolicy.BLOCK, Duration.ofSeconds(1));
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(CompletableFuture.failedFuture(new RuntimeException("Broker down")));
+
+        CompletableFuture<Void> send = kafkaProducer.sendMessage("topic", "key", "message".getBytes(), Map.of());
+
+        assertThat(send).isCompletedExceptionally();
+        assertThat(meterRegistry.get("messaging.send.ack").tag("result", "failure").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,216 @@
+package com.springcloud.demo.asksmicroservice.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.messaging.model.OutboxEvent;
+import com.springcloud.demo.asksmicroservice.messaging.model.RelayLock;
+import com.springcloud.demo.asksmicroservice.messaging.repository.OutboxEventRepository;
+import com.springcloud.demo.asksmicroservice.messaging.repository.RelayLockRepository;
+import com.springcloud.demo.asksmicroservice.utils.JsonCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RelayLockRepository relayLockRepository;
+
+    @Mock
+    private MessagingProducer messagingProducer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxRelay outboxRelay;
+
+    private boolean inTransaction;
+
+    @BeforeEach
+    void setup() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, relayLockRepository, messagingProducer, transactionTemplate, new JsonCodec(new ObjectMapper()), 2, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction = true;
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction = false;
+            }
+        });
+    }
+
+    @Test
+    void relayEventsInBatches() {
+        OutboxEvent first = event("first");
+        OutboxEvent second = event("second");
+        OutboxEvent third = event("third");
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(new RelayLock(OutboxRelay.LOCK_NAME, null, null)));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class)))
+                .willReturn(List.of(first, second))
+                .willReturn(List.of(third));
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willReturn(CompletableFuture.completedFuture(null));
+
+        outboxRelay.relay();
+
+        verify(messagingProducer).sendMessage("topic", "room", first.getPayload(), Map.of("content-type", "application/json"));
+        verify(messagingProducer).sendMessage("topic", "room", second.getPayload(), Map.of("content-type", "application/json"));
+        verify(messagingProducer).sendMessage("topic", "room", third.getPayload(), Map.of("content-type", "application/json"));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(third.getId()));
+    }
+
+    @Test
+    void keepEventsNotAcknowledged() {
+        OutboxEvent sent = event("sent");
+        OutboxEvent failed = event("failed");
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(new RelayLock(OutboxRelay.LOCK_NAME, null, null)));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class))).willReturn(List.of(sent, failed));
+        given(messagingProducer.sendMessage("topic", "room", sent.getPayload(), Map.of("content-type", "application/json"))).willReturn(CompletableFuture.completedFuture(null));
+        given(messagingProducer.sendMessage("topic", "room", failed.getPayload(), Map.of("content-type", "application/json"))).willReturn(CompletableFuture.failedFuture(new RuntimeException("Broker down")));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, times(1)).findByOrderByCreatedAtAsc(any(Limit.class));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(sent.getId()));
+    }
+
+    @Test
+    void stopRelayingARoomAtItsFirstFailure() {
+        OutboxEvent failed = event("failed", "room");
+        OutboxEvent next = event("next", "room");
+        OutboxEvent otherRoom = event("other", "other-room");
+        OutboxEvent otherRoomNext = event("other-next", "other-room");
+        List<String> sent = new ArrayList<>();
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(new RelayLock(OutboxRelay.LOCK_NAME, null, null)));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class))).willReturn(List.of(failed, otherRoom, next, otherRoomNext));
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willAnswer(invocation -> {
+            String payload = new String(invocation.<byte[]>getArgument(2), StandardCharsets.UTF_8);
+            sent.add(payload);
+            return payload.equals("failed")
+                    ? CompletableFuture.failedFuture(new RuntimeException("Broker down"))
+                    : CompletableFuture.completedFuture(null);
+        });
+
+        outboxRelay.relay();
+
+        assertThat(sent).containsExactly("failed", "other", "other-next");
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(otherRoom.getId(), otherRoomNext.getId()));
+    }
+
+    @Test
+    void sendNextEventOfARoomOnceThePreviousIsAcknowledged() {
+        OutboxEvent first = event("first");
+        OutboxEvent second = event("second");
+        CompletableFuture<Void> firstAck = new CompletableFuture<>();
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(new RelayLock(OutboxRelay.LOCK_NAME, null, null)));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class))).willReturn(List.of(first, second)).willReturn(List.of());
+        given(messagingProducer.sendMessage("topic", "room", first.getPayload(), Map.of("content-type", "application/json"))).willAnswer(invocation -> {
+            CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> firstAck.complete(null));
+            return firstAck;
+        });
+        given(messagingProducer.sendMessage("topic", "room", second.getPayload(), Map.of("content-type", "application/json"))).willAnswer(invocation -> {
+            assertThat(firstAck).isCompleted();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+    }
+
+    @Test
+    void sendWithNoTransactionOpen() {
+        OutboxEvent event = event("event");
+        RelayLock lock = new RelayLock(OutboxRelay.LOCK_NAME, null, null);
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(lock));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class))).willReturn(List.of(event));
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willAnswer(invocation -> {
+            assertThat(inTransaction).isFalse();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(event.getId()));
+        assertThat(lock.getLockedBy()).isNotNull();
+        assertThat(lock.getLockedAt()).isNotNull();
+    }
+
+    @Test
+    void skipWhileAnotherInstanceHoldsTheLease() {
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME))
+                .willReturn(Optional.of(new RelayLock(OutboxRelay.LOCK_NAME, LocalDateTime.now(), UUID.randomUUID().toString())));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, never()).findByOrderByCreatedAtAsc(any(Limit.class));
+    }
+
+    @Test
+    void takeOverExpiredLease() {
+        OutboxEvent event = event("event");
+        RelayLock lock = new RelayLock(OutboxRelay.LOCK_NAME, LocalDateTime.now().minusMinutes(1), UUID.randomUUID().toString());
+
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willReturn(Optional.of(lock));
+        given(outboxEventRepository.findByOrderByCreatedAtAsc(any(Limit.class))).willReturn(List.of(event));
+        given(messagingProducer.sendMessage(anyString(), anyString(), any(byte[].class), anyMap())).willReturn(CompletableFuture.completedFuture(null));
+        String previousHolder = lock.getLockedBy();
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(event.getId()));
+        assertThat(lock.getLockedBy()).isNotEqualTo(previousHolder);
+    }
+
+    @Test
+    void skipWhenAnotherInstanceIsRelaying() {
+        given(relayLockRepository.lockByName(OutboxRelay.LOCK_NAME)).willThrow(new PessimisticLockingFailureException("Locked"));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, never()).findByOrderByCreatedAtAsc(any(Limit.class));
+        verify(messagingProducer, never()).sendMessage(anyString(), anyString(), any(byte[].class), anyMap());
+    }
+
+    private OutboxEvent event(String payload) {
+        return event(payload, "room");
+    }
+
+    private OutboxEvent event(String payload, String key) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .topic("topic")
+                .messageKey(key)
+                .payload(payload.getBytes(StandardCharsets.UTF_8))
+                .headers("{\"content-type\":\"application/json\"}")
+                .build();
+    }
+}
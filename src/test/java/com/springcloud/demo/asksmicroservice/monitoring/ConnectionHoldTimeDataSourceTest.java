@@ -0,0 +1,64 @@
+package com.springcloud.demo.asksmicroservice.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+class ConnectionHoldTimeDataSourceTest {
+
+    SimpleMeterRegistry meterRegistry;
+    Connection connection;
+    ConnectionHoldTimeDataSource dataSource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        connection = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        given(pool.getConnection()).willReturn(connection);
+        dataSource = new ConnectionHoldTimeDataSource(pool, meterRegistry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void recordHoldTimeOfEndpointOnce() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/asks/1/answer");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/asks/{id}/answer");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Connection held = dataSource.getConnection();
+        held.close();
+        held.close();
+
+        Timer timer = meterRegistry.find(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", "POST /api/asks/{id}/answer").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void recordHoldTimeOutsideRequests() throws Exception {
+        try (Connection held = dataSource.getConnection()) {
+            held.setAutoCommit(false);
+        }
+
+        assertThat(meterRegistry.find(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", ConnectionHoldTimeDataSource.NO_ENDPOINT).timer().count()).isEqualTo(1);
+        verify(connection).setAutoCommit(false);
+    }
+}
@@ -0,0 +1,120 @@
+package com.springcloud.demo.asksmicroservice.rooms;
+
+import com.springcloud.demo.asksmicroservice.client.rooms.RoomCache;
+import com.springcloud.demo.asksmicroservice.client.rooms.RoomClientImpl;
+import com.springcloud.demo.asksmicroservice.client.rooms.dto.RoomDTO;
+import com.springcloud.demo.asksmicroservice.exceptions.NotFoundException;
+import com.springcloud.demo.asksmicroservice.rooms.dto.RoomEventDTO;
+import com.springcloud.demo.asksmicroservice.rooms.model.RoomOwner;
+import com.springcloud.demo.asksmicroservice.rooms.repository.RoomOwnerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOwnershipTest {
+
+    @Mock
+    private RoomOwnerRepository roomOwnerRepository;
+
+    @Mock
+    private RoomClientImpl roomClient;
+
+    @Mock
+    private RoomCache roomCache;
+
+    @InjectMocks
+    private RoomOwnership roomOwnership;
+
+    String roomId;
+    String ownerId;
+
+    @BeforeEach
+    void setup() {
+        roomId = UUID.randomUUID().toString();
+        ownerId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void ownerFromProjectionWithoutCallingRooms() {
+        given(roomOwnerRepository.findById(roomId)).willReturn(Optional.of(new RoomOwner(roomId, ownerId, false)));
+
+        assertThat(roomOwnership.ownerOf(roomId)).isEqualTo(ownerId);
+
+        verifyNoInteractions(roomClient);
+    }
+
+    @Test
+    void notFoundWhenRoomDeleted() {
+        given(roomOwnerRepository.findById(roomId)).willReturn(Optional.of(new RoomOwner(roomId, ownerId, true)));
+
+        assertThatThrownBy(() -> roomOwnership.ownerOf(roomId)).isInstanceOf(NotFoundException.class);
+
+        verifyNoInteractions(roomClient);
+    }
+
+    @Test
+    void notFoundWhenRoomDeletedWhileLoading() {
+        given(roomOwnerRepository.findById(roomId))
+                .willReturn(Optional.empty())
+                .willReturn(Optional.of(new RoomOwner(roomId, ownerId, true)));
+        given(roomClient.findById(roomId)).willReturn(RoomDTO.builder().id(roomId).ownerId(ownerId).build());
+        willThrow(new DataIntegrityViolationException("duplicate")).given(roomOwnerRepository).insert(roomId, ownerId);
+
+        assertThatThrownBy(() -> roomOwnership.ownerOf(roomId)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void loadRoomMissingInProjection() {
+        given(roomOwnerRepository.findById(roomId)).willReturn(Optional.empty());
+        given(roomClient.findById(roomId)).willReturn(RoomDTO.builder().id(roomId).ownerId(ownerId).build());
+        willThrow(new DataIntegrityViolationException("duplicate")).given(roomOwnerRepository).insert(roomId, ownerId);
+
+        assertThat(roomOwnership.ownerOf(roomId)).isEqualTo(ownerId);
+
+        verify(roomOwnerRepository).insert(roomId, ownerId);
+    }
+
+    @Test
+    void applyRoomEvents() {
+        roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.UPDATED, roomId, ownerId));
+        given(roomOwnerRepository.markDeleted(roomId)).willReturn(1);
+        roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.DELETED, roomId, ownerId));
+
+        verify(roomOwnerRepository).save(argThat(owner -> owner.getRoomId().equals(roomId) && owner.getOwnerId().equals(ownerId) && !owner.isDeleted()));
+        verify(roomOwnerRepository).markDeleted(roomId);
+        verify(roomOwnerRepository, never()).insertDeleted(anyString(), any());
+        verify(roomCache, times(2)).evict(roomId);
+    }
+
+    @Test
+    void tombstoneWithoutOwnerWhenDeletedRoomNotProjected() {
+        given(roomOwnerRepository.markDeleted(roomId)).willReturn(0);
+
+        roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.DELETED, roomId, null));
+
+        verify(roomOwnerRepository).insertDeleted(roomId, null);
+        verify(roomOwnerRepository, never()).save(any(RoomOwner.class));
+    }
+
+    @Test
+    void markDeletedRoomLoadedWhileDeleting() {
+        given(roomOwnerRepository.markDeleted(roomId)).willReturn(0).willReturn(1);
+        willThrow(new DataIntegrityViolationException("duplicate")).given(roomOwnerRepository).insertDeleted(roomId, null);
+
+        roomOwnership.apply(new RoomEventDTO(RoomEventDTO.Type.DELETED, roomId, null));
+
+        verify(roomOwnerRepository, times(2)).markDeleted(roomId);
+    }
+}
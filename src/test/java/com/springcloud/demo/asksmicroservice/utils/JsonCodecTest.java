@@ -0,0 +1,50 @@
+package com.springcloud.demo.asksmicroservice.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.asksmicroservice.asks.dto.ResponseAskDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonCodecTest {
+
+    JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+
+    @Test
+    void writeAndReadBytes() {
+        ResponseAskDTO ask = ResponseAskDTO.builder().id(UUID.randomUUID().toString()).question("First question").build();
+
+        byte[] json = jsonCodec.toBytes(ask);
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo(jsonCodec.toJson(ask));
+        assertThat(jsonCodec.fromJson(json, ResponseAskDTO.class)).isEqualTo(ask);
+    }
+
+    @Test
+    void writeToStreamWithoutClosingIt() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new IllegalStateException("Stream closed");
+            }
+        };
+
+        jsonCodec.write(out, Map.of("first", "1"));
+        jsonCodec.write(out, Map.of("second", "2"));
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"first\":\"1\"}{\"second\":\"2\"}");
+    }
+
+    @Test
+    void readGenericTypes() {
+        Map<String, String> headers = jsonCodec.fromJson("{\"content-type\":\"application/json\"}", new TypeReference<>() {});
+
+        assertThat(headers).containsEntry("content-type", "application/json");
+    }
+}